@@ -0,0 +1,76 @@
+package com.example.capstone.jfc.benchmark;
+
+import com.example.capstone.jfc.service.AgingPriorityPolicy;
+import com.example.capstone.jfc.service.ClusterOwnership;
+import com.example.capstone.jfc.service.DispatchIndex;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import com.example.capstone.jfc.service.SchedulingPolicy;
+import com.example.capstone.jfc.service.StrictPriorityPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one dispatch decision (claim a cycle's worth of slots, then complete them) as the
+ * NEW backlog and the number of tools grow. The backlog is kept constant by re-enqueuing
+ * every completed job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int backlog;
+
+    @Param({"3", "30", "300"})
+    public int tools;
+
+    @Param({"strict-priority", "aging"})
+    public String policy;
+
+    @Param({"8"})
+    public int globalLimit;
+
+    private DispatchIndex index;
+    private Map<String, Integer> toolLimits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SchedulingPolicy schedulingPolicy = policy.equals("aging")
+                ? new AgingPriorityPolicy(60_000)
+                : new StrictPriorityPolicy();
+        // Cluster mode is off by default, so this instance owns every tool
+        index = new DispatchIndex(null, schedulingPolicy, new ClusterOwnership(event -> { }));
+
+        toolLimits = new HashMap<>();
+        for (int t = 0; t < tools; t++) {
+            toolLimits.put("tool-" + t, 4);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < backlog; i++) {
+            index.enqueue(new QueuedJob("job-" + i, "tool-" + random.nextInt(tools),
+                    1 + random.nextInt(10), base.plusNanos(i * 1_000L)));
+        }
+    }
+
+    @Benchmark
+    public List<QueuedJob> claimAndComplete() {
+        List<QueuedJob> claimed = index.claim(toolLimits, globalLimit, Long.MAX_VALUE);
+        for (QueuedJob job : claimed) {
+            index.release(job.jobId());
+            index.enqueue(job);
+        }
+        return claimed;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.capstone.jfc.benchmark;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import com.example.capstone.jfc.serde.JfcDeserializer;
+import com.example.capstone.jfc.serde.JfcSerializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion path end to end: produce job messages to an embedded Kafka broker, poll them back
+ * with the application's serde in the given format and write each poll with the batched insert
+ * into an in-process H2 database. Reported per job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IngestionRoundTripBenchmark {
+
+    private static final String TOPIC = "job-ingestion";
+    private static final int JOBS_PER_INVOCATION = 1000;
+
+    @Param({"binary", "json"})
+    public String format;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private KafkaProducer<String, Object> producer;
+    private KafkaConsumer<String, Object> consumer;
+    private JobBatchRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private long nextJobId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producerProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        producer = new KafkaProducer<>(producerProps, new StringSerializer(), new JfcSerializer(format, 0));
+
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "jfc-ingestion-benchmark");
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 2000);
+        consumer = new KafkaConsumer<>(consumerProps, new StringDeserializer(), new JfcDeserializer());
+        consumer.subscribe(List.of(TOPIC));
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:jfc-ingest-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE jobs (" +
+                "job_id VARCHAR(255) PRIMARY KEY, tool_id VARCHAR(255), payload CLOB, payload_ref VARCHAR(64), priority INT, " +
+                "status VARCHAR(32), timestamp_created TIMESTAMP, timestamp_updated TIMESTAMP, " +
+                "lease_expires_at TIMESTAMP)");
+        repository = new JobBatchRepository(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        consumer.close();
+        producer.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JOBS_PER_INVOCATION)
+    public int produceConsumeAndInsert() {
+        for (int i = 0; i < JOBS_PER_INVOCATION; i++) {
+            String jobId = "job-" + nextJobId++;
+            producer.send(new ProducerRecord<>(TOPIC, "A",
+                    new JobMessage(jobId, "A", "{\"data\":\"benchmark payload\"}", 1)));
+        }
+        producer.flush();
+
+        int received = 0;
+        while (received < JOBS_PER_INVOCATION) {
+            List<JobEntity> batch = new ArrayList<>();
+            for (ConsumerRecord<String, Object> record : consumer.poll(Duration.ofMillis(100))) {
+                JobMessage message = (JobMessage) record.value();
+                JobEntity job = new JobEntity();
+                job.setJobId(message.jobId());
+                job.setToolId(message.toolId());
+                job.setPayload(message.payload());
+                job.setPriority(message.priority());
+                batch.add(job);
+            }
+            transactionTemplate.executeWithoutResult(status -> repository.insertNewJobs(batch));
+            consumer.commitSync();
+            received += batch.size();
+        }
+        return received;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.capstone.jfc.benchmark;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-job cost of the batched ingestion insert and the coalesced status update, against an
+ * in-process H2 database in MySQL mode. Results are per job, not per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobBatchRepositoryBenchmark {
+
+    @Param({"100", "2000"})
+    public int batchSize;
+
+    private JobBatchRepository repository;
+    private TransactionTemplate transactionTemplate;
+    private List<String> existingJobIds;
+    private long nextJobId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:jfc-bench-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE jobs (" +
+                "job_id VARCHAR(255) PRIMARY KEY, tool_id VARCHAR(255), payload CLOB, payload_ref VARCHAR(64), priority INT, " +
+                "status VARCHAR(32), timestamp_created TIMESTAMP, timestamp_updated TIMESTAMP, " +
+                "lease_expires_at TIMESTAMP, dispatch_epoch INT NOT NULL DEFAULT 0)");
+        jdbcTemplate.execute("CREATE INDEX idx_jobs_status_dispatch ON jobs (status, priority DESC, timestamp_created, job_id)");
+
+        repository = new JobBatchRepository(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        List<JobEntity> seed = jobs(batchSize);
+        transactionTemplate.executeWithoutResult(status -> repository.insertNewJobs(seed));
+        existingJobIds = seed.stream().map(JobEntity::getJobId).toList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2000)
+    public void insertNewJobs() {
+        // Normalised to 2000 ops; run a 100-row batch 20 times so both sizes report per-job cost
+        for (int i = 0; i < 2000 / batchSize; i++) {
+            List<JobEntity> batch = jobs(batchSize);
+            transactionTemplate.executeWithoutResult(status -> repository.insertNewJobs(batch));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2000)
+    public void reinsertDuplicates() {
+        List<JobEntity> duplicates = new ArrayList<>(batchSize);
+        for (String jobId : existingJobIds) {
+            duplicates.add(job(jobId));
+        }
+        for (int i = 0; i < 2000 / batchSize; i++) {
+            transactionTemplate.executeWithoutResult(status -> repository.insertNewJobs(duplicates));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2000)
+    public int applyStatuses() {
+        // Epoch 0 applies unfenced, so every iteration writes every row
+        List<StatusUpdate> updates = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            updates.add(new StatusUpdate(existingJobIds.get(i), i < batchSize / 2 ? JobStatus.SUCCESS : JobStatus.FAIL, 0));
+        }
+        int updated = 0;
+        for (int i = 0; i < 2000 / batchSize; i++) {
+            updated += transactionTemplate.execute(status -> repository.updateStatuses(updates)).size();
+        }
+        return updated;
+    }
+
+    private List<JobEntity> jobs(int count) {
+        List<JobEntity> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            jobs.add(job("job-" + nextJobId++));
+        }
+        return jobs;
+    }
+
+    private static JobEntity job(String jobId) {
+        JobEntity job = new JobEntity();
+        job.setJobId(jobId);
+        job.setToolId("A");
+        job.setPayload("{\"data\":\"benchmark payload\"}");
+        job.setPriority(1);
+        return job;
+    }
+}
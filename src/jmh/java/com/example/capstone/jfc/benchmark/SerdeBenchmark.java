@@ -0,0 +1,81 @@
+package com.example.capstone.jfc.benchmark;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.serde.JfcDeserializer;
+import com.example.capstone.jfc.serde.JfcSerializer;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message cost of the value serde for a job message carrying payloads of different sizes:
+ * the binary and JSON modes of {@link JfcSerializer}, against the {@code Map}-based JSON serde
+ * the topics used before ({@code map-json}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerdeBenchmark {
+
+    private static final String TOPIC = "toolA-destination";
+
+    @Param({"binary", "json", "map-json"})
+    public String format;
+
+    @Param({"64", "4096", "65536"})
+    public int payloadSize;
+
+    private Serializer<Object> serializer;
+    private Deserializer<Object> deserializer;
+    private Object message;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        // Repetitive JSON-ish payload, roughly what tools receive
+        String payload = "{\"target\":\"10.0.0.1\",\"ports\":[22,80,443]}".repeat(payloadSize / 40 + 1)
+                .substring(0, payloadSize);
+
+        if (format.equals("map-json")) {
+            JsonSerializer<Object> json = new JsonSerializer<>();
+            json.setAddTypeInfo(false);
+            serializer = json;
+            deserializer = new JsonDeserializer<>();
+            deserializer.configure(Map.of(
+                    JsonDeserializer.TRUSTED_PACKAGES, "*",
+                    JsonDeserializer.VALUE_DEFAULT_TYPE, "java.util.HashMap"), false);
+
+            Map<String, Object> map = new HashMap<>();
+            map.put("jobId", "job-0b6f8a52-7c1e-4d0c-9d35-6a4c1f0e2b11");
+            map.put("toolId", "A");
+            map.put("payload", payload);
+            map.put("priority", 5);
+            message = map;
+        } else {
+            serializer = new JfcSerializer(format, 4096);
+            deserializer = new JfcDeserializer();
+            message = new JobMessage("job-0b6f8a52-7c1e-4d0c-9d35-6a4c1f0e2b11", "A", payload, 5);
+        }
+        encoded = serializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, message);
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) {
+        blackhole.consume(deserializer.deserialize(TOPIC, encoded));
+    }
+}
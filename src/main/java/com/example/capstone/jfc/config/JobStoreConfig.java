@@ -0,0 +1,74 @@
+package com.example.capstone.jfc.config;
+
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import com.example.capstone.jfc.repository.JobRepository;
+import com.example.capstone.jfc.store.DatabaseJobStore;
+import com.example.capstone.jfc.store.JobStore;
+import com.example.capstone.jfc.store.WalJobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class JobStoreConfig {
+
+    @Value("${jfc.store.mode}")
+    private String mode;
+
+    @Value("${jfc.store.wal.dir}")
+    private String walDir;
+
+    @Value("${jfc.store.wal.segment-bytes}")
+    private int segmentBytes;
+
+    @Value("${jfc.store.wal.sync}")
+    private boolean sync;
+
+    @Value("${jfc.store.flush-batch-size}")
+    private int flushBatchSize;
+
+    @Value("${jfc.store.retain-finished-ms}")
+    private long retainFinishedMs;
+
+    @Value("${jfc.jobs.page-size}")
+    private int pageSize;
+
+    @Value("${jfc.cluster.enabled}")
+    private boolean clusterEnabled;
+
+    @Value("${jfc.archive.hot-retention-ms}")
+    private long hotRetentionMs;
+
+    @Value("${jfc.ingestion.dedup.window-ms}")
+    private long dedupWindowMs;
+
+    @Value("${jfc.ingestion.dedup.warm-up}")
+    private boolean dedupWarmUp;
+
+    @Bean
+    public JobStore jobStore(JobBatchRepository jobBatchRepository, JobRepository jobRepository) {
+        return switch (mode) {
+            case "database" -> new DatabaseJobStore(jobBatchRepository, jobRepository);
+            case "wal" -> {
+                if (clusterEnabled) {
+                    throw new IllegalStateException("jfc.store.mode=wal keeps job state in one instance's memory "
+                            + "and cannot be combined with jfc.cluster.enabled");
+                }
+                if (retainFinishedMs >= hotRetentionMs) {
+                    // Otherwise a job could be archived while still in memory and written back later
+                    throw new IllegalStateException("jfc.store.retain-finished-ms must be below jfc.archive.hot-retention-ms");
+                }
+                if (!dedupWarmUp || retainFinishedMs >= dedupWindowMs) {
+                    // The dedup filter is what keeps redelivered records of evicted jobs out of memory
+                    throw new IllegalStateException("jfc.store.mode=wal needs jfc.ingestion.dedup.warm-up "
+                            + "and a jfc.store.retain-finished-ms below jfc.ingestion.dedup.window-ms");
+                }
+                yield new WalJobStore(jobBatchRepository, Path.of(walDir), segmentBytes, sync,
+                        flushBatchSize, retainFinishedMs, pageSize);
+            }
+            default -> throw new IllegalArgumentException("Unknown jfc.store.mode: " + mode);
+        };
+    }
+}
@@ -1,9 +1,28 @@
 package com.example.capstone.jfc.config;
 
+import com.example.capstone.jfc.service.ClusterOwnership;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ExceptionClassifier;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
@@ -11,21 +30,36 @@ public class KafkaConfig {
     @Value("${jfc.topics.ingestion}")
     private String ingestionTopic;
 
+    @Value("${jfc.topics.ingestion-partitions}")
+    private int ingestionPartitions;
+
     @Value("${jfc.topics.status}")
     private String statusTopic;
 
-    @Value("${jfc.topics.toolA}")
-    private String toolATopic;
+    @Value("${jfc.topics.dead-letter}")
+    private String deadLetterTopic;
+
+    @Value("${jfc.topics.unprocessable}")
+    private String unprocessableTopic;
+
+    @Value("${jfc.consumer.max-retries}")
+    private int consumerMaxRetries;
+
+    @Value("${jfc.producer.linger-ms}")
+    private int producerLingerMs;
 
-    @Value("${jfc.topics.toolB}")
-    private String toolBTopic;
+    @Value("${jfc.producer.batch-size}")
+    private int producerBatchSize;
 
-    @Value("${jfc.topics.toolC}")
-    private String toolCTopic;
+    @Value("${jfc.producer.compression-type}")
+    private String producerCompressionType;
+
+    @Value("${jfc.producer.delivery-timeout-ms}")
+    private int producerDeliveryTimeoutMs;
 
     @Bean
     public NewTopic ingestionTopic() {
-        return new NewTopic(ingestionTopic, 3, (short) 1);
+        return new NewTopic(ingestionTopic, ingestionPartitions, (short) 1);
     }
 
     @Bean
@@ -34,17 +68,106 @@ public class KafkaConfig {
     }
 
     @Bean
-    public NewTopic toolATopic() {
-        return new NewTopic(toolATopic, 3, (short) 1);
+    public NewTopic deadLetterTopic() {
+        return new NewTopic(deadLetterTopic, 3, (short) 1);
+    }
+
+    @Bean
+    public NewTopic unprocessableTopic() {
+        return new NewTopic(unprocessableTopic, 3, (short) 1);
+    }
+
+    /**
+     * Error handling for the record listener containers (tool workers and simulators). A record
+     * whose processing keeps failing is retried with exponential backoff, then forwarded as-is to
+     * the unprocessable topic with the failure in its headers instead of being dropped. Records
+     * that cannot be deserialized go there straight away. These are kept apart from the
+     * dead-letter topic, which only carries DeadLetterMessage.
+     */
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(KafkaTemplate<String, Object> kafkaTemplate) {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(consumerMaxRetries);
+        backOff.setInitialInterval(1000);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(30000);
+        return new DefaultErrorHandler(unprocessableRecoverer(kafkaTemplate), backOff);
+    }
+
+    /**
+     * Error handling for the batch listeners (ingestion, status, load generator). A failed batch
+     * is redelivered until it goes through, however long the database is down, since dropping
+     * it would lose ingested jobs or leave jobs IN_PROGRESS until their lease is reaped. Only a
+     * batch the database rejects for its content (e.g. a constraint violation), which no retry
+     * can fix, is forwarded to the unprocessable topic.
+     */
+    private DefaultErrorHandler batchErrorHandler(KafkaTemplate<String, Object> kafkaTemplate) {
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+        backOff.setMaxInterval(30000);
+        DefaultErrorHandler handler = new DefaultErrorHandler(unprocessableRecoverer(kafkaTemplate), backOff);
+        Map<Class<? extends Throwable>, Boolean> retryable = new HashMap<>();
+        ExceptionClassifier.defaultFatalExceptionsList().forEach(type -> retryable.put(type, false));
+        retryable.put(NonTransientDataAccessException.class, false);
+        // A lost connection is non-transient to Spring, but an outage to us
+        retryable.put(DataAccessResourceFailureException.class, true);
+        handler.setClassifications(retryable, true);
+        return handler;
+    }
+
+    private DeadLetterPublishingRecoverer unprocessableRecoverer(KafkaTemplate<String, Object> kafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate, (record, e) -> new TopicPartition(unprocessableTopic, -1));
+    }
+
+    /**
+     * Producer batching for dispatch. A dispatch cycle publishes all of its jobs before
+     * waiting on any of them, so a short linger lets them share requests. The delivery
+     * timeout bounds how long the dispatcher waits to learn whether a send failed.
+     */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer producerBatchingCustomizer() {
+        return producerFactory -> producerFactory.updateConfigs(Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, producerLingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, producerCompressionType,
+                ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producerDeliveryTimeoutMs,
+                // delivery.timeout.ms must cover linger.ms + request.timeout.ms
+                ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, Math.min(30000, producerDeliveryTimeoutMs - producerLingerMs)));
     }
 
+    /**
+     * Listener factory for consumers that take a whole poll at once. Offsets are
+     * committed once per batch, after the listener returns; failed batches are handled by
+     * {@link #batchErrorHandler}. Ingestion partition assignments
+     * drive tool ownership in cluster mode.
+     */
     @Bean
-    public NewTopic toolBTopic() {
-        return new NewTopic(toolBTopic, 3, (short) 1);
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            ClusterOwnership clusterOwnership,
+            KafkaTemplate<String, Object> kafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(batchErrorHandler(kafkaTemplate));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.getContainerProperties().setConsumerRebalanceListener(clusterOwnership);
+        return factory;
     }
 
+    /**
+     * Listener factory for tool workers that finish records out of order on other threads.
+     * The worker runtime acknowledges a record only once every earlier record of its partition
+     * is done, so each acknowledgment is a contiguous offset; the container commits it on the
+     * consumer thread straight away. Async acks are not used: they pause all partitions until
+     * the whole previous poll is acknowledged, which defeats per-tool partition pausing.
+     */
     @Bean
-    public NewTopic toolCTopic() {
-        return new NewTopic(toolCTopic, 3, (short) 1);
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> toolWorkerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.example.capstone.jfc.config;
+
+import com.example.capstone.jfc.service.AgingPriorityPolicy;
+import com.example.capstone.jfc.service.AimdConcurrencyLimiter;
+import com.example.capstone.jfc.service.ConcurrencyLimiter;
+import com.example.capstone.jfc.service.GradientConcurrencyLimiter;
+import com.example.capstone.jfc.service.SchedulingPolicy;
+import com.example.capstone.jfc.service.StaticConcurrencyLimiter;
+import com.example.capstone.jfc.service.StrictPriorityPolicy;
+import com.example.capstone.jfc.service.ToolConfigRegistry;
+import com.example.capstone.jfc.service.WeightedFairQueuingPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${jfc.scheduling.policy}")
+    private String policy;
+
+    @Value("${jfc.scheduling.aging-interval-ms}")
+    private long agingIntervalMs;
+
+    @Value("${jfc.concurrency.limiter}")
+    private String limiter;
+
+    @Value("${jfc.concurrency.initial-limit}")
+    private int initialLimit;
+
+    @Value("${jfc.concurrency.min-limit}")
+    private int minLimit;
+
+    @Value("${jfc.concurrency.failure-rate-threshold}")
+    private double failureRateThreshold;
+
+    @Value("${jfc.concurrency.backoff-ratio}")
+    private double backoffRatio;
+
+    @Value("${jfc.concurrency.latency-threshold-ms}")
+    private long latencyThresholdMs;
+
+    @Value("${jfc.concurrency.tolerance}")
+    private double tolerance;
+
+    @Value("${jfc.concurrency.smoothing}")
+    private double smoothing;
+
+    @Bean
+    public SchedulingPolicy schedulingPolicy(ToolConfigRegistry toolConfigRegistry) {
+        return switch (policy) {
+            case "strict-priority" -> new StrictPriorityPolicy();
+            case "aging" -> new AgingPriorityPolicy(agingIntervalMs);
+            case "fair-share" -> new WeightedFairQueuingPolicy(toolConfigRegistry);
+            default -> throw new IllegalArgumentException("Unknown jfc.scheduling.policy: " + policy);
+        };
+    }
+
+    @Bean
+    public ConcurrencyLimiter concurrencyLimiter() {
+        return switch (limiter) {
+            case "static" -> new StaticConcurrencyLimiter();
+            case "aimd" -> new AimdConcurrencyLimiter(initialLimit, minLimit, failureRateThreshold,
+                    backoffRatio, latencyThresholdMs);
+            case "gradient" -> new GradientConcurrencyLimiter(initialLimit, minLimit, failureRateThreshold,
+                    backoffRatio, tolerance, smoothing);
+            default -> throw new IllegalArgumentException("Unknown jfc.concurrency.limiter: " + limiter);
+        };
+    }
+}
@@ -1,48 +1,107 @@
 package com.example.capstone.jfc.consumer;
 
 import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobMessage;
 import com.example.capstone.jfc.model.JobStatus;
-import com.example.capstone.jfc.repository.JobRepository;
+import com.example.capstone.jfc.service.BatchDispatcher;
+import com.example.capstone.jfc.service.DispatchIndex;
+import com.example.capstone.jfc.service.IngestionDeduplicator;
+import com.example.capstone.jfc.service.JfcMetrics;
+import com.example.capstone.jfc.service.JobEventHub;
+import com.example.capstone.jfc.service.PayloadStore;
+import com.example.capstone.jfc.service.SubmissionBacklog;
+import com.example.capstone.jfc.store.JobStore;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class JobIngestionConsumer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JobIngestionConsumer.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobStore;
+    private final DispatchIndex dispatchIndex;
+    private final BatchDispatcher batchDispatcher;
+    private final JfcMetrics metrics;
+    private final JobEventHub jobEventHub;
+    private final PayloadStore payloadStore;
+    private final IngestionDeduplicator deduplicator;
+    private final SubmissionBacklog submissionBacklog;
 
-    public JobIngestionConsumer(JobRepository jobRepository) {
-        this.jobRepository = jobRepository;
+    public JobIngestionConsumer(JobStore jobStore, DispatchIndex dispatchIndex,
+                                BatchDispatcher batchDispatcher, JfcMetrics metrics,
+                                JobEventHub jobEventHub, PayloadStore payloadStore,
+                                IngestionDeduplicator deduplicator, SubmissionBacklog submissionBacklog) {
+        this.jobStore = jobStore;
+        this.dispatchIndex = dispatchIndex;
+        this.batchDispatcher = batchDispatcher;
+        this.metrics = metrics;
+        this.jobEventHub = jobEventHub;
+        this.payloadStore = payloadStore;
+        this.deduplicator = deduplicator;
+        this.submissionBacklog = submissionBacklog;
     }
 
-    @KafkaListener(topics = "#{ '${jfc.topics.ingestion}' }", groupId = "jfc-ingestion-consumer")
-    public void onMessage(Map<String, Object> jobMessage) {
-        try {
-            String jobId = (String) jobMessage.get("jobId");
-            String toolId = (String) jobMessage.get("toolId");
-            String payload = (String) jobMessage.get("payload");
-            Integer priority = (Integer) jobMessage.getOrDefault("priority", 0);
+    /**
+     * Receives a whole poll of ingestion records and writes them in a single batched
+     * transaction. Records for jobs already accepted are dropped first, so redelivery never
+     * re-queues a job; a database failure is rethrown so the batch is redelivered.
+     */
+    @KafkaListener(topics = "#{ '${jfc.topics.ingestion}' }", groupId = "jfc-ingestion-consumer",
+            containerFactory = "batchListenerContainerFactory",
+            properties = "max.poll.records:${jfc.ingestion.max-poll-records}")
+    public void onMessages(List<ConsumerRecord<String, Object>> records) {
+        LocalDateTime now = LocalDateTime.now();
+        long nowMs = System.currentTimeMillis();
+        long maxLagMs = 0;
+        List<JobEntity> jobs = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, Object> record : records) {
+            maxLagMs = Math.max(maxLagMs, nowMs - record.timestamp());
+            if (!(record.value() instanceof JobMessage jobMessage)) {
+                LOGGER.warn("Skipping unexpected ingestion message: {}", record.value());
+                continue;
+            }
+            if (jobMessage.jobId() == null || jobMessage.toolId() == null) {
+                LOGGER.warn("Skipping ingestion message without jobId/toolId: {}", jobMessage);
+                continue;
+            }
 
             JobEntity jobEntity = new JobEntity();
-            jobEntity.setJobId(jobId);
-            jobEntity.setToolId(toolId);
-            jobEntity.setPayload(payload);
-            jobEntity.setPriority(priority);
+            jobEntity.setJobId(jobMessage.jobId());
+            jobEntity.setToolId(jobMessage.toolId());
+            jobEntity.setPayload(jobMessage.payload());
+            jobEntity.setPriority(jobMessage.priority());
             jobEntity.setStatus(JobStatus.NEW);
-            jobEntity.setTimestampCreated(LocalDateTime.now());
+            jobEntity.setTimestampCreated(now);
+            jobs.add(jobEntity);
+        }
 
-            jobRepository.save(jobEntity);
+        List<String> jobIds = jobs.stream().map(JobEntity::getJobId).toList();
+        IngestionDeduplicator.Filtered filtered = deduplicator.filter(jobs);
+        jobs = filtered.jobs();
+        payloadStore.offload(jobs);
+        jobStore.insertNewJobs(jobs);
+        deduplicator.accepted(filtered);
 
-            LOGGER.info("Inserted new job with ID {} for tool {}", jobId, toolId);
-        } catch (Exception e) {
-            LOGGER.error("Error processing job ingestion message", e);
+        for (JobEntity job : jobs) {
+            dispatchIndex.enqueue(DispatchIndex.QueuedJob.of(job));
+            jobEventHub.publish(job.getJobId(), job.getToolId(), JobStatus.NEW);
         }
+        if (!jobs.isEmpty()) {
+            batchDispatcher.wakeUp();
+        }
+        // Admission control on the submission endpoint now sees these jobs in the index, or as duplicates
+        submissionBacklog.remove(jobIds);
+
+        metrics.recordBatch("ingestion", records.size(), maxLagMs);
+        LOGGER.debug("Inserted batch of {} new jobs ({} records polled)", jobs.size(), records.size());
     }
 }
@@ -1,51 +1,168 @@
 package com.example.capstone.jfc.consumer;
 
-import com.example.capstone.jfc.model.JobEntity;
 import com.example.capstone.jfc.model.JobStatus;
-import com.example.capstone.jfc.producer.JobProducer;
-import com.example.capstone.jfc.repository.JobRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.capstone.jfc.model.StatusMessage;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.service.BatchDispatcher;
+import com.example.capstone.jfc.service.ClusterOwnership;
+import com.example.capstone.jfc.service.ConcurrencyLimiter;
+import com.example.capstone.jfc.service.DispatchIndex;
+import com.example.capstone.jfc.service.JfcMetrics;
+import com.example.capstone.jfc.service.JobEventHub;
+import com.example.capstone.jfc.service.RetryScheduler;
+import com.example.capstone.jfc.service.SlotLeaseManager;
+import com.example.capstone.jfc.store.JobStore;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.util.Map;
+
+import java.util.*;
 
 @Component
 public class JobStatusConsumer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JobStatusConsumer.class);
 
-    private final JobRepository jobRepository;
+    private final JobStore jobStore;
+    private final DispatchIndex dispatchIndex;
+    private final BatchDispatcher batchDispatcher;
+    private final ClusterOwnership clusterOwnership;
+    private final SlotLeaseManager slotLeaseManager;
+    private final JfcMetrics metrics;
+    private final JobEventHub jobEventHub;
+    private final RetryScheduler retryScheduler;
+    private final ConcurrencyLimiter concurrencyLimiter;
 
-    public JobStatusConsumer(JobRepository jobRepository) {
-        this.jobRepository = jobRepository;
+    public JobStatusConsumer(JobStore jobStore, DispatchIndex dispatchIndex,
+                             BatchDispatcher batchDispatcher, ClusterOwnership clusterOwnership,
+                             SlotLeaseManager slotLeaseManager, JfcMetrics metrics,
+                             JobEventHub jobEventHub, RetryScheduler retryScheduler,
+                             ConcurrencyLimiter concurrencyLimiter) {
+        this.jobStore = jobStore;
+        this.dispatchIndex = dispatchIndex;
+        this.batchDispatcher = batchDispatcher;
+        this.clusterOwnership = clusterOwnership;
+        this.slotLeaseManager = slotLeaseManager;
+        this.metrics = metrics;
+        this.jobEventHub = jobEventHub;
+        this.retryScheduler = retryScheduler;
+        this.concurrencyLimiter = concurrencyLimiter;
     }
 
-    @KafkaListener(topics = "#{ '${jfc.topics.status}' }", groupId = "jfc-status-consumer")
-    public void onStatusMessage(Map<String, Object> statusMessage) {
-        try {
-            // e.g. { "jobId": "123", "toolId": "ToolA", "status": "SUCCESS" }
-            String jobId = (String) statusMessage.get("jobId");
-            String statusStr = (String) statusMessage.get("status");
+    /**
+     * Applies a poll's worth of status events. Status records are keyed by jobId, so all
+     * events for one job arrive in order on one partition and the last one in the batch wins,
+     * unless it comes from an earlier dispatch than one already seen. The store only applies a
+     * report to the dispatch it came from, and only the reports it applied touch the dispatch
+     * index, so a late SUCCESS or FAIL of a reaped run cannot free the slot of the run after it.
+     * In cluster mode every instance sees every record and applies those of the tools it owns.
+     */
+    @KafkaListener(topics = "#{ '${jfc.topics.status}' }", groupId = "#{@clusterOwnership.statusGroupId()}",
+            containerFactory = "batchListenerContainerFactory",
+            properties = "max.poll.records:${jfc.status.max-poll-records}")
+    public void onStatusMessages(List<ConsumerRecord<String, Object>> records) {
+        long start = System.currentTimeMillis();
+        long maxLagMs = 0;
+
+        Map<String, JobStatus> latest = new LinkedHashMap<>();
+        Map<String, Integer> epochs = new HashMap<>();
+        Map<String, Integer> heartbeats = new LinkedHashMap<>();
+        Map<String, String> toolIds = new HashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            maxLagMs = Math.max(maxLagMs, start - record.timestamp());
+            if (!(record.value() instanceof StatusMessage statusMessage)) {
+                LOGGER.warn("Skipping unexpected status message: {}", record.value());
+                continue;
+            }
+            String jobId = statusMessage.jobId();
+            String toolId = statusMessage.toolId();
+            if (toolId != null && !clusterOwnership.owns(toolId)) {
+                continue;
+            }
+            if (statusMessage.isHeartbeat()) {
+                // The latest dispatch's heartbeat is the one that can still renew
+                heartbeats.merge(jobId, statusMessage.dispatchEpoch(), Math::max);
+                continue;
+            }
+            Integer seenEpoch = epochs.get(jobId);
+            if (seenEpoch != null && statusMessage.dispatchEpoch() != 0 && statusMessage.dispatchEpoch() < seenEpoch) {
+                continue;
+            }
+            try {
+                latest.put(jobId, JobStatus.valueOf(statusMessage.status()));
+                epochs.put(jobId, statusMessage.dispatchEpoch());
+                toolIds.put(jobId, toolId);
+            } catch (Exception e) {
+                LOGGER.error("Error processing job status message {}", statusMessage, e);
+            }
+        }
 
-            JobStatus newStatus = JobStatus.valueOf(statusStr);
+        heartbeats.keySet().removeAll(latest.keySet());
+        slotLeaseManager.renew(heartbeats);
 
-            // Fetch job from DB
-            JobEntity job = jobRepository.findById(jobId).orElse(null);
-            if (job == null) {
-                LOGGER.warn("Received status update for unknown job ID: {}", jobId);
-                return;
+        // Failures with retries left become RETRY_WAIT; the retry scheduler has already written those
+        Map<String, Integer> failed = new HashMap<>();
+        latest.forEach((jobId, status) -> {
+            if (status == JobStatus.FAIL) {
+                failed.put(jobId, epochs.get(jobId));
             }
+        });
+        Set<String> applied = new HashSet<>();
+        if (!failed.isEmpty()) {
+            Map<String, JobStatus> outcome = retryScheduler.onFailures(failed);
+            failed.keySet().forEach(jobId -> {
+                JobStatus status = outcome.get(jobId);
+                if (status == null) {
+                    latest.remove(jobId);
+                } else {
+                    latest.put(jobId, status);
+                    if (status == JobStatus.RETRY_WAIT) {
+                        applied.add(jobId);
+                    }
+                }
+            });
+        }
 
-            // Update final state
-            job.setStatus(newStatus);
-            jobRepository.save(job);
+        List<StatusUpdate> updates = new ArrayList<>(latest.size());
+        latest.forEach((jobId, status) -> {
+            if (status != JobStatus.RETRY_WAIT) {
+                updates.add(new StatusUpdate(jobId, status, epochs.get(jobId)));
+            }
+        });
 
-            LOGGER.info("Updated job {} to status {}", jobId, newStatus);
-        } catch (Exception e) {
-            LOGGER.error("Error processing job status message", e);
+        applied.addAll(jobStore.updateStatuses(updates));
+        latest.keySet().retainAll(applied);
+        if (latest.size() < updates.size()) {
+            LOGGER.warn("Ignored status updates for {} unknown or stale job IDs", updates.size() - latest.size());
         }
+
+        // Keep the dispatcher's in-memory view in step with the rows we just wrote
+        long now = System.currentTimeMillis();
+        latest.forEach((jobId, status) -> {
+            jobEventHub.publish(jobId, toolIds.get(jobId), status);
+            if (status == JobStatus.SUCCESS || status == JobStatus.FAIL || status == JobStatus.RETRY_WAIT) {
+                Long dispatchedAt = dispatchIndex.dispatchedAt(jobId);
+                if (dispatchedAt != null) {
+                    String toolId = toolIds.get(jobId);
+                    metrics.recordTimeInState(toolId, JobStatus.IN_PROGRESS, now - dispatchedAt);
+                    if (toolId != null) {
+                        concurrencyLimiter.onCompleted(toolId, dispatchedAt, now - dispatchedAt,
+                                status != JobStatus.SUCCESS, dispatchIndex.inFlight(toolId));
+                    }
+                }
+                dispatchIndex.release(jobId);
+            } else if (status == JobStatus.NEW) {
+                dispatchIndex.requeue(jobId);
+            }
+        });
+        batchDispatcher.wakeUp();
+
+        metrics.recordBatch("status", records.size(), maxLagMs);
+
+        long elapsedMs = Math.max(1, System.currentTimeMillis() - start);
+        LOGGER.debug("Applied {} status records ({} jobs) in {} ms ({} records/s, max lag {} ms)",
+                records.size(), latest.size(), elapsedMs, records.size() * 1000L / elapsedMs, maxLagMs);
     }
 }
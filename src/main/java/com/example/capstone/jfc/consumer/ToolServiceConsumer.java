@@ -1,71 +1,168 @@
 package com.example.capstone.jfc.consumer;
 
-import com.example.capstone.jfc.service.BatchDispatcher;
+import com.example.capstone.jfc.loadtest.LatencyDistribution;
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusMessage;
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.service.ToolConfigRegistry;
+import com.example.capstone.jfc.service.ToolTopicsProvisionedEvent;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Simulated tools. Jobs run on the {@link ToolWorkerRuntime}, up to each tool's
+ * {@code maxConcurrentJobs} at a time, and their offsets are committed once they finish;
+ * processing time and failure rate come from {@code jfc.tool-simulator.*}.
+ * <p>
+ * Each tool topic gets its own listener container once {@link com.example.capstone.jfc.service.ToolTopicProvisioner}
+ * has created it, so tools added to {@code tool_config} are served without a restart.
+ */
 @Component
 public class ToolServiceConsumer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ToolServiceConsumer.class);
 
+    private static final String LISTENER_ID_PREFIX = "jfc-tool-simulator-";
+    private static final String GROUP_ID = "simulated-tools-group";
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory;
+    private final ToolWorkerRuntime runtime;
+    private final LatencyDistribution latency;
+
+    // One container per tool topic; guarded by this for creation and removal
+    private final Map<String, ConcurrentMessageListenerContainer<Object, Object>> containers = new ConcurrentHashMap<>();
+    private boolean stopped;
+
+    @Value("${jfc.tool-simulator.enabled}")
+    private boolean enabled;
+
+    @Value("${jfc.tool-simulator.max-poll-records}")
+    private int maxPollRecords;
+
+    @Value("${jfc.tool-simulator.max-consumers-per-topic}")
+    private int maxConsumersPerTopic;
 
     @Value("${jfc.topics.status}")
     private String commonStatusTopic;
 
-    private final Random random = new Random();
+    @Value("${jfc.tool-simulator.failure-rate}")
+    private double failureRate;
 
-    public ToolServiceConsumer(KafkaTemplate<String, Object> kafkaTemplate) {
+    public ToolServiceConsumer(KafkaTemplate<String, Object> kafkaTemplate,
+                               @Qualifier("toolWorkerContainerFactory")
+                               ConcurrentKafkaListenerContainerFactory<Object, Object> containerFactory,
+                               ToolConfigRegistry toolConfigRegistry,
+                               @Value("${jfc.tool-simulator.latency-distribution}") String latencyDistribution,
+                               @Value("${jfc.tool-simulator.latency-min-ms}") long latencyMinMs,
+                               @Value("${jfc.tool-simulator.latency-max-ms}") long latencyMaxMs,
+                               @Value("${jfc.tool-simulator.latency-mean-ms}") long latencyMeanMs) {
         this.kafkaTemplate = kafkaTemplate;
+        this.containerFactory = containerFactory;
+        this.runtime = new ToolWorkerRuntime(containers::get, toolId -> {
+            ToolConfigEntity config = toolConfigRegistry.get(toolId);
+            return config == null || config.getMaxConcurrentJobs() == null ? 1 : config.getMaxConcurrentJobs();
+        });
+        this.latency = LatencyDistribution.of(latencyDistribution, latencyMinMs, latencyMaxMs, latencyMeanMs);
+    }
+
+    /**
+     * Starts a container for every new tool topic and stops those of topics no tool uses any more.
+     * A container keeps the consumer count it started with; partitions added later are picked up
+     * by the group's next rebalance.
+     */
+    @EventListener
+    public synchronized void onToolTopicsProvisioned(ToolTopicsProvisionedEvent event) {
+        if (!enabled || stopped) {
+            return;
+        }
+        event.partitions().forEach((topic, partitions) -> containers.computeIfAbsent(topic,
+                t -> startContainer(t, Math.max(1, Math.min(partitions, maxConsumersPerTopic)))));
+
+        containers.keySet().removeIf(topic -> {
+            if (event.partitions().containsKey(topic)) {
+                return false;
+            }
+            containers.get(topic).stop();
+            LOGGER.info("Stopped simulated tool consumer for {}", topic);
+            return true;
+        });
+    }
+
+    private ConcurrentMessageListenerContainer<Object, Object> startContainer(String topic, int consumers) {
+        ConcurrentMessageListenerContainer<Object, Object> container = containerFactory.createContainer(topic);
+        // A group per topic, so adding or removing one tool's container never rebalances the others
+        container.getContainerProperties().setGroupId(GROUP_ID + "-" + topic);
+        container.getContainerProperties().setMessageListener(
+                (AcknowledgingMessageListener<Object, Object>) this::onToolMessage);
+        container.getContainerProperties().getKafkaConsumerProperties()
+                .setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(maxPollRecords));
+        container.setConcurrency(consumers);
+        container.setBeanName(LISTENER_ID_PREFIX + topic);
+        container.start();
+        LOGGER.info("Started simulated tool consumer for {} with {} consumers", topic, consumers);
+        return container;
     }
 
-    @KafkaListener(topics = {
-            "${jfc.topics.toolA}",
-            "${jfc.topics.toolB}",
-            "${jfc.topics.toolC}"
-    }, groupId = "simulated-tools-group")
-    public void onToolMessage(ConsumerRecord<String, Object> record) {
-        Object value = record.value();
-        if (!(value instanceof Map)) {
-            LOGGER.warn("Received unexpected message type: {}", value.getClass());
+    public void onToolMessage(ConsumerRecord<Object, Object> record, Acknowledgment ack) {
+        if (!(record.value() instanceof JobMessage jobMessage)) {
+            LOGGER.warn("Received unexpected message: {}", record.value());
+            runtime.skip(record, ack);
             return;
         }
-        Map<?, ?> jobMessage = (Map<?, ?>) value;
 
-        String jobId = (String) jobMessage.get("jobId");
-        String toolId = (String) jobMessage.get("toolId");
-        LOGGER.info("Tool consumer: received job {} for tool {}. Processing...", jobId, toolId);
+        String jobId = jobMessage.jobId();
+        String toolId = jobMessage.toolId();
+        LOGGER.debug("Tool consumer: received job {} for tool {}", jobId, toolId);
+
+        runtime.submit(toolId, record, ack, () -> process(jobId, toolId, jobMessage.dispatchEpoch()));
+    }
 
-        // Random processing time (1–5s)
+    // Every report echoes the dispatch epoch, so JFC can ignore it if the job has been dispatched again since
+    private void process(String jobId, String toolId, int dispatchEpoch) {
+        // Tell JFC we are alive and working on it; real tools repeat this within the lease duration
+        sendStatus(StatusMessage.heartbeat(jobId, toolId, dispatchEpoch));
         try {
-            int sleepMs = 1000 + random.nextInt(4000);
-            Thread.sleep(sleepMs);
+            Thread.sleep(latency.nextMillis());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return;
         }
 
-        // 75% chance success, 25% fail
-        boolean success = random.nextInt(100) < 75;
-        String status = success ? "SUCCESS" : "FAIL";
+        boolean success = ThreadLocalRandom.current().nextDouble() >= failureRate;
+        JobStatus status = success ? JobStatus.SUCCESS : JobStatus.FAIL;
+        sendStatus(StatusMessage.of(jobId, toolId, status, dispatchEpoch));
+        LOGGER.debug("Tool consumer for tool {} completed job {} with status {}", toolId, jobId, status);
+    }
 
-        Map<String, Object> statusMessage = Map.of(
-                "jobId", jobId,
-                "toolId", toolId,
-                "status", status
-        );
+    private void sendStatus(StatusMessage status) {
+        // Keyed by jobId so every status for a job lands on the same partition, in order
+        kafkaTemplate.send(commonStatusTopic, status.jobId(), status);
+    }
 
-        kafkaTemplate.send(commonStatusTopic, statusMessage);
-        LOGGER.info("Tool consumer for tool {} completed job {} with status {}", toolId, jobId, status);
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            stopped = true;
+            containers.values().forEach(ConcurrentMessageListenerContainer::stop);
+        }
+        runtime.shutdown();
     }
 }
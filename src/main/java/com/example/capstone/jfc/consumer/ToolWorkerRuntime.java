@@ -0,0 +1,185 @@
+package com.example.capstone.jfc.consumer;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs tool jobs on virtual threads, at most the tool's concurrency limit at a time, so a tool's
+ * throughput is bounded by the tool and not by the listener threads.
+ * <p>
+ * Records beyond the limit wait in a per-tool backlog and the partitions they came from are
+ * paused until the backlog drains: the consumer keeps polling and keeps its group membership,
+ * but pulls no more work than the tool can take. Jobs finish out of order, so completions are
+ * tracked per partition and only the highest contiguous finished record is acknowledged: a
+ * partition's committed offset never passes an unfinished job, and a crash redelivers it.
+ */
+public class ToolWorkerRuntime {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToolWorkerRuntime.class);
+
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Function<String, MessageListenerContainer> containers;
+    private final ToIntFunction<String> concurrencyLimit;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<TopicPartition, PartitionOffsets> offsets = new ConcurrentHashMap<>();
+
+    /**
+     * @param containers       the listener container delivering each topic's records, for pausing
+     *                         partitions; null once a topic's container is gone
+     * @param concurrencyLimit jobs a tool may run at once, by toolId
+     */
+    public ToolWorkerRuntime(Function<String, MessageListenerContainer> containers, ToIntFunction<String> concurrencyLimit) {
+        this.containers = containers;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Runs {@code job} as soon as the tool has a free slot and acknowledges the record once it
+     * returns. A job that returns with its thread interrupted (shutdown) is not acknowledged.
+     */
+    public void submit(String toolId, ConsumerRecord<?, ?> record, Acknowledgment ack, Runnable job) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        Pending pending = offsets.computeIfAbsent(partition, p -> new PartitionOffsets()).add(record.offset(), ack);
+        lanes.computeIfAbsent(toolId, Lane::new).submit(new Task(partition, pending, job));
+    }
+
+    /**
+     * Acknowledges a record that carries no job, once the jobs before it in its partition are done.
+     */
+    public void skip(ConsumerRecord<?, ?> record, Acknowledgment ack) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PartitionOffsets partitionOffsets = offsets.computeIfAbsent(partition, p -> new PartitionOffsets());
+        partitionOffsets.complete(partitionOffsets.add(record.offset(), ack));
+    }
+
+    public int running(String toolId) {
+        Lane lane = lanes.get(toolId);
+        return lane == null ? 0 : lane.running();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private record Task(TopicPartition partition, Pending pending, Runnable job) {
+    }
+
+    private static final class Pending {
+        private final long offset;
+        private final Acknowledgment ack;
+        private boolean done;
+
+        private Pending(long offset, Acknowledgment ack) {
+            this.offset = offset;
+            this.ack = ack;
+        }
+    }
+
+    /**
+     * Records of one partition not yet acknowledged, in offset order.
+     */
+    private static final class PartitionOffsets {
+        private final Deque<Pending> pending = new ArrayDeque<>();
+
+        private synchronized Pending add(long offset, Acknowledgment ack) {
+            if (!pending.isEmpty() && offset <= pending.peekLast().offset) {
+                // Redelivered from the committed offset after a rebalance or seek; the old entries are moot
+                pending.clear();
+            }
+            Pending record = new Pending(offset, ack);
+            pending.add(record);
+            return record;
+        }
+
+        // Acknowledges under the lock so commits of one partition never go backwards; off the
+        // consumer thread an acknowledgment only queues the commit for it
+        private synchronized void complete(Pending record) {
+            record.done = true;
+            Pending last = null;
+            while (!pending.isEmpty() && pending.peek().done) {
+                last = pending.poll();
+            }
+            if (last != null) {
+                last.ack.acknowledge();
+            }
+        }
+    }
+
+    private final class Lane {
+        private final String toolId;
+        private final Deque<Task> backlog = new ArrayDeque<>();
+        private final Set<TopicPartition> paused = new HashSet<>();
+        private int running;
+
+        private Lane(String toolId) {
+            this.toolId = toolId;
+        }
+
+        private synchronized int running() {
+            return running;
+        }
+
+        private synchronized void submit(Task task) {
+            if (running < limit()) {
+                start(task);
+                return;
+            }
+            backlog.add(task);
+            MessageListenerContainer container = containers.apply(task.partition().topic());
+            if (container != null && paused.add(task.partition())) {
+                container.pausePartition(task.partition());
+                LOGGER.debug("Tool {} at its limit of {}; paused {}", toolId, limit(), task.partition());
+            }
+        }
+
+        private synchronized void complete() {
+            running--;
+            while (running < limit() && !backlog.isEmpty()) {
+                start(backlog.poll());
+            }
+            if (backlog.isEmpty() && !paused.isEmpty()) {
+                paused.forEach(partition -> {
+                    MessageListenerContainer container = containers.apply(partition.topic());
+                    if (container != null) {
+                        container.resumePartition(partition);
+                    }
+                });
+                LOGGER.debug("Tool {} has free slots; resumed {}", toolId, paused);
+                paused.clear();
+            }
+        }
+
+        private int limit() {
+            return Math.max(1, concurrencyLimit.applyAsInt(toolId));
+        }
+
+        private void start(Task task) {
+            running++;
+            workers.execute(() -> {
+                try {
+                    task.job().run();
+                    if (!Thread.currentThread().isInterrupted()) {
+                        offsets.get(task.partition()).complete(task.pending());
+                    }
+                } catch (RuntimeException e) {
+                    // The job ran and failed; committing past it is what a real tool reporting FAIL would do
+                    LOGGER.error("Tool {} job from {} threw", toolId, task.partition(), e);
+                    offsets.get(task.partition()).complete(task.pending());
+                } finally {
+                    complete();
+                }
+            });
+        }
+    }
+}
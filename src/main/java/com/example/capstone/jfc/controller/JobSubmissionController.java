@@ -0,0 +1,197 @@
+package com.example.capstone.jfc.controller;
+
+import com.example.capstone.jfc.model.JobBatchResult;
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.producer.JobProducer;
+import com.example.capstone.jfc.service.SubmissionBacklog;
+import com.example.capstone.jfc.service.ToolConfigRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin
+public class JobSubmissionController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobSubmissionController.class);
+
+    private final JobProducer jobProducer;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final SubmissionBacklog submissionBacklog;
+    private final ObjectMapper objectMapper;
+
+    @Value("${jfc.submit.max-jobs-per-request}")
+    private int maxJobsPerRequest;
+
+    @Value("${jfc.submit.max-queued}")
+    private int maxQueued;
+
+    @Value("${jfc.submit.max-queued-per-tool}")
+    private int maxQueuedPerTool;
+
+    @Value("${jfc.submit.retry-after-seconds}")
+    private long retryAfterSeconds;
+
+    @Value("${jfc.submit.send-timeout-ms}")
+    private long sendTimeoutMs;
+
+    public JobSubmissionController(JobProducer jobProducer, ToolConfigRegistry toolConfigRegistry,
+                                   SubmissionBacklog submissionBacklog, ObjectMapper objectMapper) {
+        this.jobProducer = jobProducer;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.submissionBacklog = submissionBacklog;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Admits jobs in bulk, one JSON object per line: {@code {"jobId", "toolId", "payload", "priority"}},
+     * where only toolId is required, the priority must be an integer and the payload may be a string
+     * or any JSON value. The body is
+     * read as a stream and each admitted line is produced to the ingestion topic straight away; the
+     * response is sent once the broker has acknowledged them, so an accepted jobId is durable.
+     * <p>
+     * Backlogs include jobs admitted by earlier or concurrent requests that are not indexed yet
+     * (see {@link SubmissionBacklog}). While the backlog is at {@code jfc.submit.max-queued} the
+     * whole request is refused with 429 and Retry-After. Malformed lines and lines for unknown tools
+     * or for tools whose own backlog is full are rejected individually; if every line was refused
+     * for backlog the status is 429 as well. Once {@code jfc.submit.max-jobs-per-request} jobs are
+     * admitted the rest of the body is not read, and one rejection at the next line covers it.
+     */
+    @PostMapping(value = "/jobs:batch", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/jsonl"})
+    public ResponseEntity<JobBatchResult> submitBatch(InputStream body) throws IOException {
+        if (submissionBacklog.globalQueued() >= maxQueued) {
+            return tooManyRequests(new JobBatchResult(List.of(), List.of()));
+        }
+
+        List<String> accepted = new ArrayList<>();
+        List<JobBatchResult.Rejection> rejected = new ArrayList<>();
+        List<Sent> sent = new ArrayList<>();
+        Map<String, ToolConfigEntity> tools = toolConfigRegistry.all();
+        int backlogRejections = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (sent.size() >= maxJobsPerRequest) {
+                // The rest of the body is not read; one rejection stands for this line and all after it
+                rejected.add(new JobBatchResult.Rejection(lineNumber, null,
+                        "more than " + maxJobsPerRequest + " jobs in one request; this and later lines were not read"));
+                break;
+            }
+
+            JobMessage job;
+            try {
+                job = parse(line);
+            } catch (JsonProcessingException e) {
+                rejected.add(new JobBatchResult.Rejection(lineNumber, null, "malformed JSON: " + e.getOriginalMessage()));
+                continue;
+            } catch (IllegalArgumentException e) {
+                rejected.add(new JobBatchResult.Rejection(lineNumber, null, e.getMessage()));
+                continue;
+            }
+            if (!tools.containsKey(job.toolId())) {
+                rejected.add(new JobBatchResult.Rejection(lineNumber, job.jobId(), "unknown toolId " + job.toolId()));
+                continue;
+            }
+            if (!submissionBacklog.tryAdmit(job.jobId(), job.toolId(), maxQueuedPerTool, maxQueued)) {
+                rejected.add(new JobBatchResult.Rejection(lineNumber, job.jobId(), "backlog of " + job.toolId() + " is full"));
+                backlogRejections++;
+                continue;
+            }
+            sent.add(new Sent(lineNumber, job.jobId(), jobProducer.submitJob(job)));
+        }
+
+        awaitAcks(sent, accepted, rejected);
+        rejected.sort(Comparator.comparingInt(JobBatchResult.Rejection::line));
+        JobBatchResult result = new JobBatchResult(accepted, rejected);
+        LOGGER.debug("Bulk submission: {} jobs admitted, {} lines rejected", accepted.size(), rejected.size());
+        if (accepted.isEmpty() && backlogRejections > 0) {
+            return tooManyRequests(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    private JobMessage parse(String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("not a JSON object");
+        }
+        String toolId = node.path("toolId").asText(null);
+        if (toolId == null || toolId.isBlank()) {
+            throw new IllegalArgumentException("toolId is required");
+        }
+        String jobId = node.path("jobId").asText(null);
+        if (jobId == null || jobId.isBlank()) {
+            jobId = "job-" + UUID.randomUUID();
+        }
+        JsonNode payload = node.get("payload");
+        String payloadText = payload == null || payload.isNull() ? null
+                : payload.isTextual() ? payload.asText() : payload.toString();
+        JsonNode priority = node.get("priority");
+        if (priority != null && !priority.isNull() && !priority.canConvertToExactIntegral()) {
+            throw new IllegalArgumentException("priority must be an integer");
+        }
+        if (priority != null && priority.isNumber() && !priority.canConvertToInt()) {
+            throw new IllegalArgumentException("priority is out of range");
+        }
+        return new JobMessage(jobId, toolId, payloadText, priority == null ? 0 : priority.asInt(0));
+    }
+
+    // Waits for the broker, sharing one deadline across the whole request
+    private void awaitAcks(List<Sent> sent, List<String> accepted, List<JobBatchResult.Rejection> rejected) {
+        List<String> undelivered = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (Sent job : sent) {
+            try {
+                job.ack().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                accepted.add(job.jobId());
+            } catch (ExecutionException e) {
+                undelivered.add(job.jobId());
+                rejected.add(new JobBatchResult.Rejection(job.line(), job.jobId(),
+                        "not delivered: " + e.getCause().getMessage()));
+            } catch (TimeoutException e) {
+                rejected.add(new JobBatchResult.Rejection(job.line(), job.jobId(), "not acknowledged in time, may still be admitted"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejected.add(new JobBatchResult.Rejection(job.line(), job.jobId(), "interrupted"));
+            }
+        }
+        submissionBacklog.remove(undelivered);
+    }
+
+    private ResponseEntity<JobBatchResult> tooManyRequests(JobBatchResult result) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(result);
+    }
+
+    private record Sent(int line, String jobId, CompletableFuture<SendResult<String, Object>> ack) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.capstone.jfc.controller;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.repository.ToolConfigRepository;
+import com.example.capstone.jfc.service.ToolConfigRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin
+public class ToolAdminController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToolAdminController.class);
+
+    private final ToolConfigRepository toolConfigRepository;
+    private final ToolConfigRegistry toolConfigRegistry;
+
+    public ToolAdminController(ToolConfigRepository toolConfigRepository, ToolConfigRegistry toolConfigRegistry) {
+        this.toolConfigRepository = toolConfigRepository;
+        this.toolConfigRegistry = toolConfigRegistry;
+    }
+
+    // Creates or updates a tool config; the new values are live as soon as this returns
+    @PutMapping("/tools/{toolId}")
+    public ToolConfigEntity putTool(@PathVariable String toolId, @RequestBody ToolConfigEntity update) {
+        if (update.getMaxConcurrentJobs() == null || update.getMaxConcurrentJobs() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxConcurrentJobs must be >= 0");
+        }
+        if (update.getDestinationTopic() == null || update.getDestinationTopic().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "destinationTopic is required");
+        }
+        if (update.getRetryMaxAttempts() != null && update.getRetryMaxAttempts() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "retryMaxAttempts must be >= 0");
+        }
+        if (update.getRateLimitPerSecond() != null && update.getRateLimitPerSecond() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rateLimitPerSecond must be >= 0");
+        }
+        if (update.getRateLimitBurst() != null && update.getRateLimitBurst() < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "rateLimitBurst must be >= 1");
+        }
+
+        ToolConfigEntity config = toolConfigRepository.findById(toolId).orElseGet(() -> {
+            ToolConfigEntity created = new ToolConfigEntity();
+            created.setToolId(toolId);
+            return created;
+        });
+        config.setMaxConcurrentJobs(update.getMaxConcurrentJobs());
+        config.setDestinationTopic(update.getDestinationTopic());
+        config.setSchedulingWeight(update.getSchedulingWeight());
+        config.setRetryMaxAttempts(update.getRetryMaxAttempts());
+        config.setRetryBackoffMs(update.getRetryBackoffMs());
+        config.setRetryMaxBackoffMs(update.getRetryMaxBackoffMs());
+        config.setRetryBackoffMultiplier(update.getRetryBackoffMultiplier());
+        config.setRateLimitPerSecond(update.getRateLimitPerSecond());
+        config.setRateLimitBurst(update.getRateLimitBurst());
+        ToolConfigEntity saved = toolConfigRepository.save(config);
+
+        toolConfigRegistry.refresh();
+        LOGGER.info("Updated tool {}: maxConcurrentJobs={}, destinationTopic={}",
+                toolId, saved.getMaxConcurrentJobs(), saved.getDestinationTopic());
+        return saved;
+    }
+
+    // Forces a reload, e.g. after editing tool_config directly in the database
+    @PostMapping("/tools/refresh")
+    public void refreshTools() {
+        toolConfigRegistry.refresh();
+    }
+}
@@ -1,14 +1,28 @@
 package com.example.capstone.jfc.controller;
 
-import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobPage;
 import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.JobSummary;
 import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.model.ToolCounters;
+import com.example.capstone.jfc.repository.JobArchiveRepository;
 import com.example.capstone.jfc.repository.JobRepository;
-import com.example.capstone.jfc.repository.ToolConfigRepository;
+import com.example.capstone.jfc.service.ClusterOwnership;
+import com.example.capstone.jfc.service.JobEventHub;
+import com.example.capstone.jfc.service.PayloadStore;
+import com.example.capstone.jfc.service.ToolConfigRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -18,28 +32,114 @@ import java.util.List;
 public class VisualizationController {
 
     private final JobRepository jobRepository;
-    private final ToolConfigRepository toolConfigRepository;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final JobEventHub jobEventHub;
+    private final ClusterOwnership clusterOwnership;
+    private final PayloadStore payloadStore;
+    private final JobArchiveRepository jobArchiveRepository;
 
-    public VisualizationController(JobRepository jobRepository, ToolConfigRepository toolConfigRepository) {
+    @Value("${jfc.jobs.page-size}")
+    private int maxPageSize;
+
+    @Value("${jfc.store.mode}")
+    private String storeMode;
+
+    public VisualizationController(JobRepository jobRepository, ToolConfigRegistry toolConfigRegistry,
+                                   JobEventHub jobEventHub, ClusterOwnership clusterOwnership,
+                                   PayloadStore payloadStore, JobArchiveRepository jobArchiveRepository) {
         this.jobRepository = jobRepository;
-        this.toolConfigRepository = toolConfigRepository;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.jobEventHub = jobEventHub;
+        this.clusterOwnership = clusterOwnership;
+        this.payloadStore = payloadStore;
+        this.jobArchiveRepository = jobArchiveRepository;
     }
 
-    // Returns all jobs with status = NEW
+    // Returns one page of jobs with status = NEW, in dispatch order; 304 if nothing changed since the ETag
     @GetMapping("/jobs/new")
-    public List<JobEntity> getNewJobs() {
-        return jobRepository.findByStatus(JobStatus.NEW);
+    public JobPage getNewJobs(@RequestParam(required = false) String cursor,
+                              @RequestParam(required = false) Integer limit,
+                              WebRequest request) {
+        return page(JobStatus.NEW, cursor, limit, request);
     }
 
-    // Returns all jobs with status = IN_PROGRESS
+    // Returns one page of jobs with status = IN_PROGRESS; 304 if nothing changed since the ETag
     @GetMapping("/jobs/inprogress")
-    public List<JobEntity> getInProgressJobs() {
-        return jobRepository.findByStatus(JobStatus.IN_PROGRESS);
+    public JobPage getInProgressJobs(@RequestParam(required = false) String cursor,
+                                     @RequestParam(required = false) Integer limit,
+                                     WebRequest request) {
+        return page(JobStatus.IN_PROGRESS, cursor, limit, request);
+    }
+
+    // One job, live or archived
+    @GetMapping("/jobs/{jobId}")
+    public JobSummary getJob(@PathVariable String jobId) {
+        return jobArchiveRepository.findSummary(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No job " + jobId));
+    }
+
+    // Jobs from the live and archive tables, most recently updated first
+    @GetMapping("/jobs/history")
+    public JobPage getJobHistory(@RequestParam(required = false) String toolId,
+                                 @RequestParam(required = false) JobStatus status,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(required = false) Integer limit) {
+        int pageSize = limit == null ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        JobSummary after;
+        try {
+            after = cursor == null ? null : JobPage.decodeHistoryCursor(cursor);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+        return JobPage.of(jobArchiveRepository.findHistory(toolId, status, after, pageSize), pageSize,
+                JobPage::encodeHistoryCursor);
+    }
+
+    // The payload of one job, fetched on demand; job listings never carry it
+    @GetMapping(value = "/jobs/{jobId}/payload", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String getJobPayload(@PathVariable String jobId) {
+        return jobRepository.findById(jobId)
+                .flatMap(payloadStore::payload)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No payload for job " + jobId));
+    }
+
+    // Live per-tool counters from memory
+    @GetMapping("/tools/counters")
+    public List<ToolCounters> getToolCounters() {
+        return jobEventHub.counters();
+    }
+
+    // Server-Sent Events: "jobs" events carry state-change deltas, "counters" events the per-tool counters
+    @GetMapping("/jobs/stream")
+    public SseEmitter streamJobs() {
+        return jobEventHub.subscribe();
     }
 
     // (Optional) Return the tool configs so we can see each tool's concurrency limit
     @GetMapping("/tools")
     public List<ToolConfigEntity> getAllTools() {
-        return toolConfigRepository.findAll();
+        return List.copyOf(toolConfigRegistry.all().values());
+    }
+
+    private JobPage page(JobStatus status, String cursor, Integer limit, WebRequest request) {
+        int pageSize = limit == null ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        JobSummary after;
+        try {
+            after = cursor == null ? null : JobPage.decodeCursor(cursor, status);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor", e);
+        }
+
+        // The change version only covers this instance's tools, so it can only vouch for a page when clustering is off.
+        // In wal mode it moves before MySQL is written behind, so a page read in between would be cached as current.
+        if (!clusterOwnership.isEnabled() && !"wal".equals(storeMode)) {
+            String etag = "W/\"" + jobEventHub.bootId() + "-" + jobEventHub.version() + "-" + status + "-"
+                    + pageSize + "-" + (cursor == null ? "" : cursor) + "\"";
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+        }
+        return JobPage.of(jobRepository.findPageByStatus(status, after, pageSize), pageSize);
     }
 }
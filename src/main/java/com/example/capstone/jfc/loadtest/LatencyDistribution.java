@@ -0,0 +1,34 @@
+package com.example.capstone.jfc.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulated processing time of a tool, in milliseconds.
+ */
+public interface LatencyDistribution {
+
+    long nextMillis();
+
+    /**
+     * @param name   {@code fixed}, {@code uniform}, {@code exponential} or {@code lognormal}
+     * @param minMs  lower bound (uniform), or the constant (fixed)
+     * @param maxMs  upper bound (uniform), and a cap for the unbounded distributions
+     * @param meanMs mean (exponential, lognormal)
+     */
+    static LatencyDistribution of(String name, long minMs, long maxMs, long meanMs) {
+        return switch (name) {
+            case "fixed" -> () -> minMs;
+            case "uniform" -> () -> ThreadLocalRandom.current().nextLong(minMs, maxMs + 1);
+            case "exponential" -> () -> Math.min(maxMs,
+                    minMs + Math.round(-meanMs * Math.log(1 - ThreadLocalRandom.current().nextDouble())));
+            case "lognormal" -> {
+                // sigma 1 gives a long tail; mu chosen so that the mean is meanMs
+                double sigma = 1.0;
+                double mu = Math.log(meanMs) - sigma * sigma / 2;
+                yield () -> Math.min(maxMs,
+                        minMs + Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian())));
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + name);
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.capstone.jfc.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency and throughput of a load test run. Recording is wait-free; reports
+ * cover both the last interval and the whole run.
+ */
+public class LatencyReport {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+    private final Histogram total = new Histogram(MAX_TRACKABLE_MICROS, 3);
+    private final long startNanos = System.nanoTime();
+
+    private Histogram interval;
+    private long lastReportNanos = startNanos;
+
+    public void record(long latencyNanos) {
+        recorder.recordValue(Math.min(MAX_TRACKABLE_MICROS, Math.max(0, latencyNanos / 1000)));
+    }
+
+    /**
+     * Logs the interval since the previous call and the run so far.
+     */
+    public synchronized void log(Logger logger, long submitted, long succeeded, long failed) {
+        long now = System.nanoTime();
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+
+        double intervalSeconds = Math.max(1e-9, (now - lastReportNanos) / 1e9);
+        double runSeconds = Math.max(1e-9, (now - startNanos) / 1e9);
+        lastReportNanos = now;
+
+        logger.info("Load test: submitted={} succeeded={} failed={} | interval {} jobs/s p50={}ms p99={}ms p999={}ms " +
+                        "| overall {} jobs/s p50={}ms p99={}ms p999={}ms max={}ms",
+                submitted, succeeded, failed,
+                Math.round(interval.getTotalCount() / intervalSeconds),
+                millis(interval, 50), millis(interval, 99), millis(interval, 99.9),
+                Math.round(total.getTotalCount() / runSeconds),
+                millis(total, 50), millis(total, 99), millis(total, 99.9), total.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.capstone.jfc.loadtest;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.StatusMessage;
+import com.example.capstone.jfc.service.RetryScheduler;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives JFC through its ingestion topic and measures how long each job takes to reach a
+ * final status on the status topic: SUCCESS, or the FAIL that uses up the tool's retries.
+ * <ul>
+ *     <li>{@code closed} mode keeps {@code concurrency} jobs outstanding at all times, so the
+ *     offered load follows what the system can absorb.</li>
+ *     <li>{@code open} mode submits at {@code rate-per-second} regardless of completions. Latency
+ *     is measured from each job's scheduled send time, so a stalled sender does not hide queueing
+ *     (no coordinated omission).</li>
+ * </ul>
+ * Runs after startup on its own thread, so the dispatcher is already up.
+ */
+@Component
+public class LoadGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final RetryScheduler retryScheduler;
+    private final LatencyReport report = new LatencyReport();
+
+    // jobId -> nanoTime the job counts as submitted
+    private final Map<String, Long> outstanding = new ConcurrentHashMap<>();
+    // Outstanding jobs that have failed and are being retried
+    private final Map<String, Failures> failures = new ConcurrentHashMap<>();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @Value("${jfc.topics.ingestion}")
+    private String ingestionTopic;
+
+    @Value("${jfc.load-test.enabled}")
+    private boolean enabled;
+
+    @Value("${jfc.load-test.mode}")
+    private String mode;
+
+    @Value("${jfc.load-test.total-jobs}")
+    private long totalJobs;
+
+    @Value("${jfc.load-test.rate-per-second}")
+    private double ratePerSecond;
+
+    @Value("${jfc.load-test.concurrency}")
+    private int concurrency;
+
+    @Value("${jfc.load-test.tool-weights}")
+    private String toolWeights;
+
+    @Value("${jfc.load-test.priority-weights}")
+    private String priorityWeights;
+
+    @Value("${jfc.load-test.payload-bytes}")
+    private int payloadBytes;
+
+    private Semaphore permits;
+    private volatile boolean finished;
+
+    public LoadGenerator(KafkaTemplate<String, Object> kafkaTemplate, RetryScheduler retryScheduler) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryScheduler = retryScheduler;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        WeightedChoice<String> tools = new WeightedChoice<>(toolWeights, s -> s);
+        WeightedChoice<Integer> priorities = new WeightedChoice<>(priorityWeights, Integer::valueOf);
+        String payload = "{\"data\":\"" + "x".repeat(Math.max(0, payloadBytes - 11)) + "\"}";
+
+        Runnable generator = switch (mode) {
+            case "open" -> () -> runOpenLoop(tools, priorities, payload);
+            case "closed" -> () -> runClosedLoop(tools, priorities, payload);
+            default -> throw new IllegalArgumentException("Unknown jfc.load-test.mode: " + mode);
+        };
+        LOGGER.info("Starting {}-loop load test: totalJobs={}, rate={}/s, concurrency={}, tools={}, priorities={}",
+                mode, totalJobs == 0 ? "unbounded" : totalJobs, ratePerSecond, concurrency, toolWeights, priorityWeights);
+        Thread.ofPlatform().name("jfc-load-generator").daemon().start(generator);
+    }
+
+    private void runOpenLoop(WeightedChoice<String> tools, WeightedChoice<Integer> priorities, String payload) {
+        long intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        long next = System.nanoTime();
+        while (totalJobs == 0 || submitted.get() < totalJobs) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            submit(tools.next(), priorities.next(), payload, next);
+            next += intervalNanos;
+        }
+    }
+
+    private void runClosedLoop(WeightedChoice<String> tools, WeightedChoice<Integer> priorities, String payload) {
+        permits = new Semaphore(concurrency);
+        while (totalJobs == 0 || submitted.get() < totalJobs) {
+            permits.acquireUninterruptibly();
+            submit(tools.next(), priorities.next(), payload, System.nanoTime());
+        }
+    }
+
+    private void submit(String toolId, int priority, String payload, long submittedAtNanos) {
+        String jobId = "job-" + UUID.randomUUID();
+        outstanding.put(jobId, submittedAtNanos);
+        submitted.incrementAndGet();
+        // Keyed by toolId: in cluster mode the partition decides which instance owns the tool
+        kafkaTemplate.send(ingestionTopic, toolId, new JobMessage(jobId, toolId, payload, priority));
+    }
+
+    @KafkaListener(topics = "#{ '${jfc.topics.status}' }", groupId = "jfc-load-test",
+            containerFactory = "batchListenerContainerFactory", autoStartup = "${jfc.load-test.enabled}")
+    public void onStatusMessages(List<ConsumerRecord<String, Object>> records) {
+        long now = System.nanoTime();
+        for (ConsumerRecord<String, Object> record : records) {
+            if (!(record.value() instanceof StatusMessage status)) {
+                continue;
+            }
+            boolean success = "SUCCESS".equals(status.status());
+            if (!success && !"FAIL".equals(status.status())) {
+                continue;
+            }
+            if (!outstanding.containsKey(status.jobId())) {
+                continue; // not ours, or already counted
+            }
+            if (!success && !isFinalFailure(status)) {
+                continue;
+            }
+            failures.remove(status.jobId());
+            Long submittedAt = outstanding.remove(status.jobId());
+            if (submittedAt == null) {
+                continue;
+            }
+            report.record(now - submittedAt);
+            (success ? succeeded : failed).incrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+        if (!finished && totalJobs > 0 && succeeded.get() + failed.get() == totalJobs) {
+            LOGGER.info("Load test finished.");
+            report.log(LOGGER, submitted.get(), succeeded.get(), failed.get());
+            finished = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jfc.load-test.report-interval-ms}")
+    public void logReport() {
+        if (enabled && !finished && submitted.get() > 0) {
+            report.log(LOGGER, submitted.get(), succeeded.get(), failed.get());
+        }
+    }
+
+    /**
+     * Whether this FAIL leaves the job failed for good: JFC retries a job until it has failed
+     * one more time than its tool's retry limit. Each dispatch is counted once, so a redelivered
+     * report does not use up a retry.
+     */
+    private boolean isFinalFailure(StatusMessage status) {
+        Failures counted = failures.compute(status.jobId(), (jobId, previous) -> {
+            if (previous == null) {
+                return new Failures(1, status.dispatchEpoch());
+            }
+            // Without an epoch the dispatches cannot be told apart, so every report counts
+            boolean sameDispatch = status.dispatchEpoch() != 0 && previous.dispatchEpoch() == status.dispatchEpoch();
+            return sameDispatch ? previous : new Failures(previous.count() + 1, status.dispatchEpoch());
+        });
+        return counted.count() > retryScheduler.policy(status.toolId()).maxAttempts();
+    }
+
+    private record Failures(int count, int dispatchEpoch) {
+    }
+}
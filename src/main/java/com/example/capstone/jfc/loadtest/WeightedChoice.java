@@ -0,0 +1,45 @@
+package com.example.capstone.jfc.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Picks values at random in proportion to their weights, parsed from a spec such as
+ * {@code "A:3,B:1,C:1"}.
+ */
+public class WeightedChoice<T> {
+
+    private final List<T> values = new ArrayList<>();
+    private final double[] cumulativeWeights;
+
+    public WeightedChoice(String spec, Function<String, T> parser) {
+        List<Double> cumulative = new ArrayList<>();
+        double total = 0;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            double weight = parts.length > 1 ? Double.parseDouble(parts[1].trim()) : 1.0;
+            if (weight <= 0) {
+                continue;
+            }
+            total += weight;
+            values.add(parser.apply(parts[0].trim()));
+            cumulative.add(total);
+        }
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("No positive weights in '" + spec + "'");
+        }
+        cumulativeWeights = cumulative.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    public T next() {
+        double point = ThreadLocalRandom.current().nextDouble(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return values.get(i);
+            }
+        }
+        return values.get(values.size() - 1);
+    }
+}
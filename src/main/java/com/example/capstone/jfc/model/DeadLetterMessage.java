@@ -0,0 +1,14 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * A job given up on after its last retry, as published to the dead-letter topic. Carries
+ * everything needed to re-ingest it.
+ */
+public record DeadLetterMessage(String jobId,
+                                String toolId,
+                                String payload,
+                                int priority,
+                                int attempts,
+                                String reason,
+                                long failedAt) {
+}
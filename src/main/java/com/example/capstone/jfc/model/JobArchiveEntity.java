@@ -0,0 +1,147 @@
+package com.example.capstone.jfc.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished (SUCCESS or FAIL) job moved out of {@code jobs} by the archiver. Rows are written
+ * and read through {@code JobArchiveRepository}; the entity is here for the schema. With
+ * {@code jfc.archive.partitioning=monthly} the table is range-partitioned on {@code completed_at}
+ * and its primary key widened to (job_id, completed_at), as MySQL requires.
+ */
+@Entity
+@Table(name = "jobs_archive", indexes = {
+        @Index(name = "idx_jobs_archive_completed", columnList = "completed_at, job_id"),
+        @Index(name = "idx_jobs_archive_tool_completed", columnList = "tool_id, completed_at"),
+        @Index(name = "idx_jobs_archive_payload_ref", columnList = "payload_ref")
+})
+public class JobArchiveEntity {
+
+    @Id
+    @Column(name = "job_id", nullable = false, updatable = false)
+    private String jobId;
+
+    @Column(name = "tool_id")
+    private String toolId;
+
+    @Lob
+    @Column(name = "payload")
+    private String payload;
+
+    @Column(name = "payload_ref", length = 64)
+    private String payloadRef;
+
+    @Column(name = "priority")
+    private Integer priority;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private JobStatus status;
+
+    @Column(name = "attempts", columnDefinition = "int not null default 0")
+    private int attempts;
+
+    @Column(name = "timestamp_created")
+    private LocalDateTime timestampCreated;
+
+    @Column(name = "timestamp_updated")
+    private LocalDateTime timestampUpdated;
+
+    // When the job reached its final status; the partitioning and retention key
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    public JobArchiveEntity() {}
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getToolId() {
+        return toolId;
+    }
+
+    public void setToolId(String toolId) {
+        this.toolId = toolId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public String getPayloadRef() {
+        return payloadRef;
+    }
+
+    public void setPayloadRef(String payloadRef) {
+        this.payloadRef = payloadRef;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getTimestampCreated() {
+        return timestampCreated;
+    }
+
+    public void setTimestampCreated(LocalDateTime timestampCreated) {
+        this.timestampCreated = timestampCreated;
+    }
+
+    public LocalDateTime getTimestampUpdated() {
+        return timestampUpdated;
+    }
+
+    public void setTimestampUpdated(LocalDateTime timestampUpdated) {
+        this.timestampUpdated = timestampUpdated;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.capstone.jfc.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk submission: the jobIds admitted onto the ingestion topic, in request order,
+ * and the lines that were not.
+ */
+public record JobBatchResult(List<String> accepted, List<Rejection> rejected) {
+
+    /**
+     * @param line  1-based line of the NDJSON request body
+     * @param jobId the line's jobId, if it could be read
+     */
+    public record Rejection(int line, String jobId, String reason) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * One job state change as pushed to dashboards.
+ */
+public record JobDelta(String jobId, String toolId, JobStatus status, long timestamp) {
+}
@@ -5,7 +5,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "jobs")
+@Table(name = "jobs", indexes = {
+        // Keyset paging in dispatch order within a status
+        @Index(name = "idx_jobs_status_dispatch", columnList = "status, priority DESC, timestamp_created, job_id"),
+        @Index(name = "idx_jobs_tool_status", columnList = "tool_id, status"),
+        // Finding finished jobs old enough to archive
+        @Index(name = "idx_jobs_status_updated", columnList = "status, timestamp_updated"),
+        // Seeding the ingestion dedup filter with recent jobs at startup
+        @Index(name = "idx_jobs_created", columnList = "timestamp_created"),
+        // Finding payloads no job references any more
+        @Index(name = "idx_jobs_payload_ref", columnList = "payload_ref")
+})
 public class JobEntity {
 
     @Id
@@ -15,10 +25,15 @@ public class JobEntity {
     @Column(name = "tool_id")
     private String toolId;
 
+    // Small payloads only; larger ones live in job_payloads and are referenced by payloadRef
     @Lob
     @Column(name = "payload")
     private String payload; // could store JSON as string
 
+    // SHA-256 of an offloaded payload (see JobPayloadEntity), null when the payload is inline
+    @Column(name = "payload_ref", length = 64)
+    private String payloadRef;
+
     @Column(name = "priority")
     private Integer priority;
 
@@ -32,6 +47,22 @@ public class JobEntity {
     @Column(name = "timestamp_updated")
     private LocalDateTime timestampUpdated;
 
+    // Deadline of the concurrency slot held while IN_PROGRESS; pushed out by tool heartbeats
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Number of the latest dispatch; tools echo it back so reports from an earlier dispatch can be told apart
+    @Column(name = "dispatch_epoch", columnDefinition = "int not null default 0")
+    private int dispatchEpoch;
+
+    // Retries made so far after a FAIL
+    @Column(name = "attempts", columnDefinition = "int not null default 0")
+    private int attempts;
+
+    // When a RETRY_WAIT job goes back to NEW
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
     public JobEntity() {}
 
     @PrePersist
@@ -71,6 +102,14 @@ public class JobEntity {
         this.payload = payload;
     }
 
+    public String getPayloadRef() {
+        return payloadRef;
+    }
+
+    public void setPayloadRef(String payloadRef) {
+        this.payloadRef = payloadRef;
+    }
+
     public Integer getPriority() {
         return priority;
     }
@@ -102,4 +141,36 @@ public class JobEntity {
     public void setTimestampUpdated(LocalDateTime timestampUpdated) {
         this.timestampUpdated = timestampUpdated;
     }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    public int getDispatchEpoch() {
+        return dispatchEpoch;
+    }
+
+    public void setDispatchEpoch(int dispatchEpoch) {
+        this.dispatchEpoch = dispatchEpoch;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
 }
@@ -0,0 +1,13 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * A job as it travels on the ingestion topic and on the tool topics. On a tool topic
+ * {@code dispatchEpoch} numbers the dispatch, and the tool echoes it in its status reports;
+ * on the ingestion topic it is 0.
+ */
+public record JobMessage(String jobId, String toolId, String payload, int priority, int dispatchEpoch) {
+
+    public JobMessage(String jobId, String toolId, String payload, int priority) {
+        this(jobId, toolId, payload, priority, 0);
+    }
+}
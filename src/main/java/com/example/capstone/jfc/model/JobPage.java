@@ -0,0 +1,62 @@
+package com.example.capstone.jfc.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page of jobs plus the opaque cursor for the next page ({@code null} on the last page).
+ */
+public record JobPage(List<JobSummary> jobs, String nextCursor) {
+
+    public static JobPage of(List<JobSummary> jobs, int pageSize) {
+        return of(jobs, pageSize, JobPage::encodeCursor);
+    }
+
+    public static JobPage of(List<JobSummary> jobs, int pageSize, Function<JobSummary, String> cursor) {
+        if (jobs.size() < pageSize) {
+            return new JobPage(jobs, null);
+        }
+        return new JobPage(jobs, cursor.apply(jobs.get(jobs.size() - 1)));
+    }
+
+    /**
+     * Encodes the sort key of {@code last} (priority, creation time, jobId) as a URL-safe cursor.
+     */
+    public static String encodeCursor(JobSummary last) {
+        String key = last.priority() + "|" + last.timestampCreated() + "|" + last.jobId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Turns a cursor back into a (partial) summary usable as the "after" row of a keyset query.
+     */
+    public static JobSummary decodeCursor(String cursor, JobStatus status) {
+        String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = key.split("\\|", 3);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return new JobSummary(parts[2], null, Integer.valueOf(parts[0]), status,
+                LocalDateTime.parse(parts[1]), null, null, null);
+    }
+
+    /**
+     * Encodes the sort key of {@code last} in history order (last update, jobId) as a URL-safe cursor.
+     */
+    public static String encodeHistoryCursor(JobSummary last) {
+        String key = last.timestampUpdated() + "|" + last.jobId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static JobSummary decodeHistoryCursor(String cursor) {
+        String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = key.split("\\|", 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return new JobSummary(parts[1], null, null, null, null, LocalDateTime.parse(parts[0]), null, null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.capstone.jfc.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A job payload too large to keep inline in {@code jobs}, stored once per distinct content and
+ * keyed by its SHA-256. Rows are written through {@code JobPayloadRepository}; the entity is here
+ * for the schema.
+ */
+@Entity
+@Table(name = "job_payloads", indexes = {
+        @Index(name = "idx_job_payloads_created", columnList = "timestamp_created")
+})
+public class JobPayloadEntity {
+
+    @Id
+    @Column(name = "payload_hash", length = 64, nullable = false, updatable = false)
+    private String payloadHash;
+
+    @Lob
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    // In chars
+    @Column(name = "content_length")
+    private Integer contentLength;
+
+    // Refreshed whenever a new job stores the same content, so purging can tell recent payloads apart
+    @Column(name = "timestamp_created")
+    private LocalDateTime timestampCreated;
+
+    public JobPayloadEntity() {}
+
+    public String getPayloadHash() {
+        return payloadHash;
+    }
+
+    public void setPayloadHash(String payloadHash) {
+        this.payloadHash = payloadHash;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public Integer getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Integer contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public LocalDateTime getTimestampCreated() {
+        return timestampCreated;
+    }
+
+    public void setTimestampCreated(LocalDateTime timestampCreated) {
+        this.timestampCreated = timestampCreated;
+    }
+}
@@ -4,5 +4,7 @@ public enum JobStatus {
     NEW,
     IN_PROGRESS,
     SUCCESS,
-    FAIL
+    FAIL,
+    // Failed, waiting out its backoff before going back to NEW
+    RETRY_WAIT
 }
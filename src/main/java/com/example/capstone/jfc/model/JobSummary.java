@@ -0,0 +1,17 @@
+package com.example.capstone.jfc.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload-free view of a job row, used by paged queries so listing jobs never
+ * pulls the {@code @Lob} column.
+ */
+public record JobSummary(String jobId,
+                         String toolId,
+                         Integer priority,
+                         JobStatus status,
+                         LocalDateTime timestampCreated,
+                         LocalDateTime timestampUpdated,
+                         LocalDateTime leaseExpiresAt,
+                         Integer dispatchEpoch) {
+}
@@ -0,0 +1,13 @@
+package com.example.capstone.jfc.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * A RETRY_WAIT job as needed to re-arm its retry timer after a restart.
+ */
+public record RetryWait(String jobId,
+                        String toolId,
+                        Integer priority,
+                        LocalDateTime timestampCreated,
+                        LocalDateTime nextAttemptAt) {
+}
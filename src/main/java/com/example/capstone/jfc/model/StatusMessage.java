@@ -0,0 +1,28 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * A report from a tool on the common status topic. {@code status} is a {@link JobStatus} name,
+ * or {@link #HEARTBEAT} to renew the job's slot lease without changing its status.
+ * {@code dispatchEpoch} is the one of the {@link JobMessage} being reported on, so a late report
+ * from an earlier dispatch of the same job is ignored; 0 means the tool did not say.
+ */
+public record StatusMessage(String jobId, String toolId, String status, int dispatchEpoch) {
+
+    public static final String HEARTBEAT = "HEARTBEAT";
+
+    public StatusMessage(String jobId, String toolId, String status) {
+        this(jobId, toolId, status, 0);
+    }
+
+    public static StatusMessage of(String jobId, String toolId, JobStatus status, int dispatchEpoch) {
+        return new StatusMessage(jobId, toolId, status.name(), dispatchEpoch);
+    }
+
+    public static StatusMessage heartbeat(String jobId, String toolId, int dispatchEpoch) {
+        return new StatusMessage(jobId, toolId, HEARTBEAT, dispatchEpoch);
+    }
+
+    public boolean isHeartbeat() {
+        return HEARTBEAT.equals(status);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * A status a tool reported for one dispatch of a job, as applied by the job store.
+ *
+ * @param dispatchEpoch the dispatch being reported on, or 0 if the tool did not say
+ */
+public record StatusUpdate(String jobId, JobStatus status, int dispatchEpoch) {
+
+    /**
+     * Whether a report of {@code dispatchEpoch} belongs to the current dispatch of a job in the
+     * given state: it is IN_PROGRESS with that epoch, or still NEW one below it because the report
+     * overtook markInProgress. A report without an epoch always applies.
+     */
+    public static boolean isCurrent(int dispatchEpoch, JobStatus status, int jobDispatchEpoch) {
+        return dispatchEpoch == 0
+                || status == JobStatus.IN_PROGRESS && jobDispatchEpoch == dispatchEpoch
+                || status == JobStatus.NEW && jobDispatchEpoch == dispatchEpoch - 1;
+    }
+}
@@ -16,6 +16,37 @@ public class ToolConfigEntity {
     @Column(name = "destination_topic")
     private String destinationTopic;
 
+    // Relative share of dispatch slots under the fair-share scheduling policy (null = 1)
+    @Column(name = "scheduling_weight")
+    private Integer schedulingWeight;
+
+    // Retries after a FAIL before the job is dead-lettered (null or 0 = none)
+    @Column(name = "retry_max_attempts")
+    private Integer retryMaxAttempts;
+
+    // Backoff before the first retry, growing by retryBackoffMultiplier per attempt up to retryMaxBackoffMs
+    @Column(name = "retry_backoff_ms")
+    private Long retryBackoffMs;
+
+    @Column(name = "retry_max_backoff_ms")
+    private Long retryMaxBackoffMs;
+
+    @Column(name = "retry_backoff_multiplier")
+    private Double retryBackoffMultiplier;
+
+    // Dispatches per second, on top of maxConcurrentJobs (null or 0 = unlimited)
+    @Column(name = "rate_limit_per_second")
+    private Double rateLimitPerSecond;
+
+    // Dispatches allowed back to back before the rate applies (null = 1)
+    @Column(name = "rate_limit_burst")
+    private Integer rateLimitBurst;
+
+    // Bumped on every JPA update; the registry polls it to notice changes
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+
     public ToolConfigEntity() {}
 
     // Getters and Setters
@@ -42,4 +73,68 @@ public class ToolConfigEntity {
     public void setDestinationTopic(String destinationTopic) {
         this.destinationTopic = destinationTopic;
     }
+
+    public Integer getSchedulingWeight() {
+        return schedulingWeight;
+    }
+
+    public void setSchedulingWeight(Integer schedulingWeight) {
+        this.schedulingWeight = schedulingWeight;
+    }
+
+    public Integer getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public void setRetryMaxAttempts(Integer retryMaxAttempts) {
+        this.retryMaxAttempts = retryMaxAttempts;
+    }
+
+    public Long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    public void setRetryBackoffMs(Long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    public Long getRetryMaxBackoffMs() {
+        return retryMaxBackoffMs;
+    }
+
+    public void setRetryMaxBackoffMs(Long retryMaxBackoffMs) {
+        this.retryMaxBackoffMs = retryMaxBackoffMs;
+    }
+
+    public Double getRetryBackoffMultiplier() {
+        return retryBackoffMultiplier;
+    }
+
+    public void setRetryBackoffMultiplier(Double retryBackoffMultiplier) {
+        this.retryBackoffMultiplier = retryBackoffMultiplier;
+    }
+
+    public Double getRateLimitPerSecond() {
+        return rateLimitPerSecond;
+    }
+
+    public void setRateLimitPerSecond(Double rateLimitPerSecond) {
+        this.rateLimitPerSecond = rateLimitPerSecond;
+    }
+
+    public Integer getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    public void setRateLimitBurst(Integer rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
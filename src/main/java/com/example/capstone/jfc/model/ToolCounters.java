@@ -0,0 +1,13 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * Live per-tool job counts. Queued and in-progress are current; succeeded and failed are
+ * totals since this instance started.
+ */
+public record ToolCounters(String toolId,
+                           int queued,
+                           int inProgress,
+                           int maxConcurrentJobs,
+                           long succeeded,
+                           long failed) {
+}
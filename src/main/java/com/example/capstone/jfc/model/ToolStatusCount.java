@@ -0,0 +1,7 @@
+package com.example.capstone.jfc.model;
+
+/**
+ * Number of jobs for one tool in one status.
+ */
+public record ToolStatusCount(String toolId, JobStatus status, long count) {
+}
@@ -1,12 +1,14 @@
 package com.example.capstone.jfc.producer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.capstone.jfc.model.JobMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class JobProducer {
@@ -15,11 +17,26 @@ public class JobProducer {
 
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Value("${jfc.topics.ingestion}")
+    private String ingestionTopic;
+
     public JobProducer(KafkaTemplate<String, Object> kafkaTemplate) {
         this.kafkaTemplate = kafkaTemplate;
     }
 
-    public void sendJobToTool(String topic, Map<String, Object> jobData) throws JsonProcessingException {
-        kafkaTemplate.send(topic, jobData);
+    /**
+     * Publishes a job to its tool topic, keyed by jobId. The returned future completes once
+     * the broker has acknowledged the record, or exceptionally if it could not be delivered.
+     */
+    public CompletableFuture<SendResult<String, Object>> sendJobToTool(String topic, JobMessage job) {
+        return kafkaTemplate.send(topic, job.jobId(), job);
+    }
+
+    /**
+     * Publishes a submitted job to the ingestion topic, keyed by toolId: in cluster mode the
+     * partition decides which instance owns the tool.
+     */
+    public CompletableFuture<SendResult<String, Object>> submitJob(JobMessage job) {
+        return kafkaTemplate.send(ingestionTopic, job.toolId(), job);
     }
 }
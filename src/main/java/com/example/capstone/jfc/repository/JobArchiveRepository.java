@@ -0,0 +1,200 @@
+package com.example.capstone.jfc.repository;
+
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.JobSummary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * JDBC access to {@code jobs_archive}: moving finished jobs out of {@code jobs}, retention,
+ * monthly partition maintenance, and reads that span both tables.
+ */
+@Repository
+public class JobArchiveRepository {
+
+    private static final String COLUMNS =
+            "job_id, tool_id, payload, payload_ref, priority, status, attempts, timestamp_created, timestamp_updated";
+
+    private static final String TERMINAL = "('" + JobStatus.SUCCESS + "', '" + JobStatus.FAIL + "')";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private static final RowMapper<JobSummary> SUMMARY = (rs, rowNum) -> new JobSummary(
+            rs.getString("job_id"),
+            rs.getString("tool_id"),
+            rs.getInt("priority"),
+            JobStatus.valueOf(rs.getString("status")),
+            toLocal(rs.getTimestamp("timestamp_created")),
+            toLocal(rs.getTimestamp("sort_ts")),
+            toLocal(rs.getTimestamp("lease_expires_at")),
+            rs.getObject("dispatch_epoch", Integer.class));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Moves up to {@code batchSize} SUCCESS/FAIL jobs of the given tools, last updated before
+     * {@code cutoff}, oldest first, from {@code jobs} to {@code jobs_archive}. The rows are locked
+     * first, so a status change racing with the move either lands before it or finds the row gone.
+     * A job already in the archive keeps its archived row and is still removed from {@code jobs},
+     * so one such row cannot stall archival by failing every batch it is picked for.
+     *
+     * @return the number of jobs archived
+     */
+    @Transactional
+    public int archiveBatch(Collection<String> toolIds, LocalDateTime cutoff, int batchSize) {
+        if (toolIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>(toolIds);
+        args.add(Timestamp.valueOf(cutoff));
+        args.add(batchSize);
+        List<String> jobIds = jdbcTemplate.queryForList(
+                "SELECT job_id FROM jobs WHERE status IN " + TERMINAL
+                        + " AND tool_id IN (" + placeholders(toolIds.size()) + ") AND timestamp_updated < ?"
+                        + " ORDER BY timestamp_updated, job_id LIMIT ? FOR UPDATE",
+                String.class, args.toArray());
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+
+        String ids = placeholders(jobIds.size());
+        List<Object> insertArgs = new ArrayList<>(jobIds.size() + 1);
+        insertArgs.add(Timestamp.valueOf(LocalDateTime.now()));
+        insertArgs.addAll(jobIds);
+        jdbcTemplate.update("INSERT IGNORE INTO jobs_archive (" + COLUMNS + ", completed_at, archived_at) "
+                + "SELECT " + COLUMNS + ", COALESCE(timestamp_updated, timestamp_created), ? "
+                + "FROM jobs WHERE job_id IN (" + ids + ")", insertArgs.toArray());
+        return jdbcTemplate.update("DELETE FROM jobs WHERE job_id IN (" + ids + ")", jobIds.toArray());
+    }
+
+    /**
+     * Deletes up to {@code batchSize} archived jobs completed before {@code cutoff}.
+     *
+     * @return the number of rows deleted
+     */
+    public int purgeBatch(LocalDateTime cutoff, int batchSize) {
+        return jdbcTemplate.update("DELETE FROM jobs_archive WHERE completed_at < ? LIMIT ?",
+                Timestamp.valueOf(cutoff), batchSize);
+    }
+
+    /**
+     * The job from {@code jobs}, or from {@code jobs_archive} if it has been archived.
+     */
+    public Optional<JobSummary> findSummary(String jobId) {
+        List<JobSummary> found = jdbcTemplate.query(
+                "SELECT job_id, tool_id, priority, status, timestamp_created, timestamp_updated AS sort_ts, "
+                        + "lease_expires_at, dispatch_epoch FROM jobs WHERE job_id = ? "
+                        + "UNION ALL SELECT job_id, tool_id, priority, status, timestamp_created, completed_at, "
+                        + "NULL, NULL FROM jobs_archive WHERE job_id = ?",
+                SUMMARY, jobId, jobId);
+        return found.stream().findFirst();
+    }
+
+    /**
+     * One page of jobs from both tables, most recently updated first, optionally filtered by
+     * tool and status. {@code after} is the last row of the previous page, or null.
+     */
+    public List<JobSummary> findHistory(String toolId, JobStatus status, JobSummary after, int pageSize) {
+        StringBuilder filter = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (toolId != null) {
+            filter.append(" AND tool_id = ?");
+            filterArgs.add(toolId);
+        }
+        if (status != null) {
+            filter.append(" AND status = ?");
+            filterArgs.add(status.name());
+        }
+
+        String hotTs = "COALESCE(timestamp_updated, timestamp_created)";
+        String hot = "SELECT job_id, tool_id, priority, status, timestamp_created, " + hotTs + " AS sort_ts, "
+                + "lease_expires_at, dispatch_epoch FROM jobs WHERE 1 = 1" + filter + keyset(hotTs, after);
+        String cold = "SELECT job_id, tool_id, priority, status, timestamp_created, completed_at AS sort_ts, "
+                + "NULL AS lease_expires_at, NULL AS dispatch_epoch FROM jobs_archive WHERE 1 = 1" + filter
+                + keyset("completed_at", after);
+        String order = " ORDER BY sort_ts DESC, job_id DESC LIMIT ?";
+
+        // Each side is limited on its own so the archive side can use its (completed_at, job_id) index
+        List<Object> args = new ArrayList<>();
+        for (int side = 0; side < 2; side++) {
+            args.addAll(filterArgs);
+            if (after != null) {
+                Timestamp ts = Timestamp.valueOf(after.timestampUpdated());
+                args.addAll(List.of(ts, ts, after.jobId()));
+            }
+            args.add(pageSize);
+        }
+        args.add(pageSize);
+        return jdbcTemplate.query("SELECT * FROM ((" + hot + order + ") UNION ALL (" + cold + order + ")) page"
+                + order, SUMMARY, args.toArray());
+    }
+
+    /**
+     * Names of the partitions of {@code jobs_archive}, empty if it is not partitioned.
+     */
+    public List<String> partitionNames() {
+        return jdbcTemplate.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'jobs_archive' AND PARTITION_NAME IS NOT NULL "
+                + "ORDER BY PARTITION_ORDINAL_POSITION", String.class);
+    }
+
+    /**
+     * Converts {@code jobs_archive} to monthly range partitions on {@code completed_at}, one per
+     * month from {@code first} to {@code last}, plus a catch-all. Rebuilds the table.
+     */
+    public void partitionByMonth(YearMonth first, YearMonth last) {
+        jdbcTemplate.execute("ALTER TABLE jobs_archive DROP PRIMARY KEY, ADD PRIMARY KEY (job_id, completed_at)");
+        StringJoiner partitions = new StringJoiner(", ");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            partitions.add(monthPartition(month));
+        }
+        partitions.add("PARTITION pmax VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE jobs_archive PARTITION BY RANGE (TO_DAYS(completed_at)) (" + partitions + ")");
+    }
+
+    /**
+     * Splits the partition for {@code month} off the catch-all partition.
+     */
+    public void addMonthPartition(YearMonth month) {
+        jdbcTemplate.execute("ALTER TABLE jobs_archive REORGANIZE PARTITION pmax INTO ("
+                + monthPartition(month) + ", PARTITION pmax VALUES LESS THAN MAXVALUE)");
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE jobs_archive DROP PARTITION " + name);
+    }
+
+    public static String partitionName(YearMonth month) {
+        return month.format(PARTITION_NAME);
+    }
+
+    private static String monthPartition(YearMonth month) {
+        LocalDate end = month.plusMonths(1).atDay(1);
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN (TO_DAYS('" + end + "'))";
+    }
+
+    private static String keyset(String ts, JobSummary after) {
+        return after == null ? "" : " AND (" + ts + " < ? OR (" + ts + " = ? AND job_id < ?))";
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
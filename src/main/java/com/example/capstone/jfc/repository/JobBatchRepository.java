@@ -0,0 +1,336 @@
+package com.example.capstone.jfc.repository;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Set-based JDBC writes for the hot paths where going through the JPA entity
+ * lifecycle (merge, dirty checking, one statement per row) is too expensive.
+ */
+@Repository
+public class JobBatchRepository {
+
+    // Duplicate jobIds are a no-op, so redelivered records never need a read-before-write
+    private static final String INSERT_NEW_JOB =
+            "INSERT INTO jobs (job_id, tool_id, payload, payload_ref, priority, status, timestamp_created, timestamp_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE job_id = job_id";
+
+    // Keeps IN lists well under max_allowed_packet and the driver's placeholder limit
+    private static final int MAX_IN_LIST = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the given jobs as NEW in one transaction using a JDBC batch. With
+     * {@code rewriteBatchedStatements=true} the MySQL driver sends them as multi-row inserts.
+     */
+    @Transactional
+    public void insertNewJobs(List<JobEntity> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_NEW_JOB, jobs, jobs.size(), (ps, job) -> {
+            ps.setString(1, job.getJobId());
+            ps.setString(2, job.getToolId());
+            ps.setString(3, job.getPayload());
+            ps.setString(4, job.getPayloadRef());
+            ps.setInt(5, job.getPriority() == null ? 0 : job.getPriority());
+            ps.setString(6, JobStatus.NEW.name());
+            ps.setTimestamp(7, job.getTimestampCreated() == null ? now : Timestamp.valueOf(job.getTimestampCreated()));
+            ps.setTimestamp(8, now);
+        });
+    }
+
+    /**
+     * Applies tool-reported statuses in one JDBC batch, without loading the entities or their
+     * payloads. A report carrying a dispatch epoch only applies to that dispatch: the row must be
+     * IN_PROGRESS with the same epoch, or still NEW with the one before when the report overtook
+     * {@link #markInProgress} (see {@link StatusUpdate#isCurrent}). Reports without an epoch (0)
+     * apply whatever the row's state.
+     *
+     * @return the jobIds whose row was updated
+     */
+    @Transactional
+    public List<String> updateStatuses(List<StatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE jobs SET status = ?, timestamp_updated = ?, "
+                        + "dispatch_epoch = CASE WHEN ? = 0 THEN dispatch_epoch ELSE ? END "
+                        + "WHERE job_id = ? AND (? = 0 OR (status = ? AND dispatch_epoch = ?) "
+                        + "OR (status = ? AND dispatch_epoch = ?))",
+                updates, updates.size(), (ps, update) -> {
+                    ps.setString(1, update.status().name());
+                    ps.setTimestamp(2, now);
+                    ps.setInt(3, update.dispatchEpoch());
+                    ps.setInt(4, update.dispatchEpoch());
+                    ps.setString(5, update.jobId());
+                    ps.setInt(6, update.dispatchEpoch());
+                    ps.setString(7, JobStatus.IN_PROGRESS.name());
+                    ps.setInt(8, update.dispatchEpoch());
+                    ps.setString(9, JobStatus.NEW.name());
+                    ps.setInt(10, update.dispatchEpoch() - 1);
+                });
+        return applied(updates, counts, StatusUpdate::jobId);
+    }
+
+    /**
+     * Moves confirmed dispatches from NEW to IN_PROGRESS, records their slot lease deadline and
+     * bumps their dispatch epoch. Rows that are no longer NEW (e.g. the tool already reported
+     * back) are left alone.
+     *
+     * @return the number of rows that made the transition
+     */
+    @Transactional
+    public int markInProgress(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = 0;
+        for (int start = 0; start < jobIds.size(); start += MAX_IN_LIST) {
+            List<String> chunk = jobIds.subList(start, Math.min(start + MAX_IN_LIST, jobIds.size()));
+            String sql = "UPDATE jobs SET status = ?, timestamp_updated = ?, lease_expires_at = ?, "
+                    + "dispatch_epoch = dispatch_epoch + 1 "
+                    + "WHERE status = ? AND job_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            Object[] args = new Object[chunk.size() + 4];
+            args[0] = JobStatus.IN_PROGRESS.name();
+            args[1] = now;
+            args[2] = Timestamp.valueOf(leaseExpiresAt);
+            args[3] = JobStatus.NEW.name();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 4] = chunk.get(i);
+            }
+            updated += jdbcTemplate.update(sql, args);
+        }
+        return updated;
+    }
+
+    /**
+     * Checkpoints renewed slot leases of IN_PROGRESS jobs.
+     */
+    @Transactional
+    public void extendLeases(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        for (int start = 0; start < jobIds.size(); start += MAX_IN_LIST) {
+            List<String> chunk = jobIds.subList(start, Math.min(start + MAX_IN_LIST, jobIds.size()));
+            String sql = "UPDATE jobs SET lease_expires_at = ? WHERE status = ? AND job_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            Object[] args = new Object[chunk.size() + 2];
+            args[0] = Timestamp.valueOf(leaseExpiresAt);
+            args[1] = JobStatus.IN_PROGRESS.name();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 2] = chunk.get(i);
+            }
+            jdbcTemplate.update(sql, args);
+        }
+    }
+
+    /**
+     * Moves the given jobs from {@code from} to {@code to}, leaving rows in any other status untouched.
+     *
+     * @return the number of rows that made the transition
+     */
+    @Transactional
+    public int transitionStatus(List<String> jobIds, JobStatus from, JobStatus to) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int updated = 0;
+        for (int start = 0; start < jobIds.size(); start += MAX_IN_LIST) {
+            List<String> chunk = jobIds.subList(start, Math.min(start + MAX_IN_LIST, jobIds.size()));
+            String sql = "UPDATE jobs SET status = ?, timestamp_updated = ? WHERE status = ? AND job_id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+
+            Object[] args = new Object[chunk.size() + 3];
+            args[0] = to.name();
+            args[1] = now;
+            args[2] = from.name();
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 3] = chunk.get(i);
+            }
+            updated += jdbcTemplate.update(sql, args);
+        }
+        return updated;
+    }
+
+    /**
+     * Retry bookkeeping of the given jobs: jobId, toolId, priority, creation time and attempts.
+     */
+    public List<JobEntity> findRetryState(Collection<String> jobIds) {
+        List<String> ids = new ArrayList<>(jobIds);
+        List<JobEntity> jobs = new ArrayList<>(ids.size());
+        for (int start = 0; start < ids.size(); start += MAX_IN_LIST) {
+            List<String> chunk = ids.subList(start, Math.min(start + MAX_IN_LIST, ids.size()));
+            jobs.addAll(jdbcTemplate.query("SELECT job_id, tool_id, priority, status, timestamp_created, attempts, "
+                    + "dispatch_epoch FROM jobs "
+                    + "WHERE job_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", (rs, rowNum) -> {
+                JobEntity job = new JobEntity();
+                job.setJobId(rs.getString("job_id"));
+                job.setToolId(rs.getString("tool_id"));
+                job.setPriority(rs.getInt("priority"));
+                job.setStatus(JobStatus.valueOf(rs.getString("status")));
+                Timestamp created = rs.getTimestamp("timestamp_created");
+                job.setTimestampCreated(created == null ? null : created.toLocalDateTime());
+                job.setAttempts(rs.getInt("attempts"));
+                job.setDispatchEpoch(rs.getInt("dispatch_epoch"));
+                return job;
+            }, chunk.toArray()));
+        }
+        return jobs;
+    }
+
+    /**
+     * Moves failed jobs that are still NEW or IN_PROGRESS to RETRY_WAIT, with their attempt
+     * count and next attempt time taken from the given entities. The entity's dispatch epoch is
+     * the failed dispatch and fences the update like {@link #updateStatuses}.
+     *
+     * @return the jobIds that made the transition
+     */
+    @Transactional
+    public List<String> scheduleRetries(List<JobEntity> jobs) {
+        if (jobs.isEmpty()) {
+            return List.of();
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate("UPDATE jobs SET status = ?, attempts = ?, next_attempt_at = ?, "
+                        + "timestamp_updated = ?, lease_expires_at = NULL, "
+                        + "dispatch_epoch = CASE WHEN ? = 0 THEN dispatch_epoch ELSE ? END "
+                        + "WHERE job_id = ? AND (? = 0 AND status IN (?, ?) OR (status = ? AND dispatch_epoch = ?) "
+                        + "OR (status = ? AND dispatch_epoch = ?))",
+                jobs, jobs.size(), (ps, job) -> {
+                    ps.setString(1, JobStatus.RETRY_WAIT.name());
+                    ps.setInt(2, job.getAttempts());
+                    ps.setTimestamp(3, Timestamp.valueOf(job.getNextAttemptAt()));
+                    ps.setTimestamp(4, now);
+                    ps.setInt(5, job.getDispatchEpoch());
+                    ps.setInt(6, job.getDispatchEpoch());
+                    ps.setString(7, job.getJobId());
+                    ps.setInt(8, job.getDispatchEpoch());
+                    ps.setString(9, JobStatus.NEW.name());
+                    ps.setString(10, JobStatus.IN_PROGRESS.name());
+                    ps.setString(11, JobStatus.IN_PROGRESS.name());
+                    ps.setInt(12, job.getDispatchEpoch());
+                    ps.setString(13, JobStatus.NEW.name());
+                    ps.setInt(14, job.getDispatchEpoch() - 1);
+                });
+        return applied(jobs, counts, JobEntity::getJobId);
+    }
+
+    /**
+     * Writes a batch of in-memory job changes behind in one transaction: jobs MySQL has not seen
+     * yet are inserted, then every job's current state is written over its row.
+     */
+    @Transactional
+    public void writeBehind(List<JobEntity> inserts, List<JobEntity> states) {
+        insertNewJobs(inserts);
+        if (states.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE jobs SET status = ?, timestamp_updated = ?, lease_expires_at = ?, "
+                + "attempts = ?, next_attempt_at = ?, dispatch_epoch = ? WHERE job_id = ?", states, states.size(), (ps, job) -> {
+            ps.setString(1, job.getStatus().name());
+            ps.setTimestamp(2, timestamp(job.getTimestampUpdated()));
+            ps.setTimestamp(3, timestamp(job.getLeaseExpiresAt()));
+            ps.setInt(4, job.getAttempts());
+            ps.setTimestamp(5, timestamp(job.getNextAttemptAt()));
+            ps.setInt(6, job.getDispatchEpoch());
+            ps.setString(7, job.getJobId());
+        });
+    }
+
+    /**
+     * Full rows of NEW, IN_PROGRESS and RETRY_WAIT jobs, in jobId order after {@code afterJobId}.
+     */
+    public List<JobEntity> findUnfinished(String afterJobId, int limit) {
+        return jdbcTemplate.query("SELECT job_id, tool_id, payload, payload_ref, priority, status, timestamp_created, "
+                + "timestamp_updated, lease_expires_at, attempts, next_attempt_at, dispatch_epoch FROM jobs "
+                + "WHERE status IN (?, ?, ?) AND job_id > ? ORDER BY job_id LIMIT ?", (rs, rowNum) -> {
+            JobEntity job = new JobEntity();
+            job.setJobId(rs.getString("job_id"));
+            job.setToolId(rs.getString("tool_id"));
+            job.setPayload(rs.getString("payload"));
+            job.setPayloadRef(rs.getString("payload_ref"));
+            job.setPriority(rs.getInt("priority"));
+            job.setStatus(JobStatus.valueOf(rs.getString("status")));
+            job.setTimestampCreated(localDateTime(rs.getTimestamp("timestamp_created")));
+            job.setTimestampUpdated(localDateTime(rs.getTimestamp("timestamp_updated")));
+            job.setLeaseExpiresAt(localDateTime(rs.getTimestamp("lease_expires_at")));
+            job.setAttempts(rs.getInt("attempts"));
+            job.setNextAttemptAt(localDateTime(rs.getTimestamp("next_attempt_at")));
+            job.setDispatchEpoch(rs.getInt("dispatch_epoch"));
+            return job;
+        }, JobStatus.NEW.name(), JobStatus.IN_PROGRESS.name(), JobStatus.RETRY_WAIT.name(), afterJobId, limit);
+    }
+
+    /**
+     * Which of the given jobIds are in {@code jobs} or {@code jobs_archive}.
+     */
+    public Set<String> findExistingIds(Collection<String> jobIds) {
+        List<String> ids = new ArrayList<>(jobIds);
+        Set<String> existing = new HashSet<>();
+        for (int start = 0; start < ids.size(); start += MAX_IN_LIST) {
+            List<String> chunk = ids.subList(start, Math.min(start + MAX_IN_LIST, ids.size()));
+            String in = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            Object[] args = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i] = chunk.get(i);
+                args[i + chunk.size()] = chunk.get(i);
+            }
+            existing.addAll(jdbcTemplate.queryForList("SELECT job_id FROM jobs WHERE job_id IN (" + in + ") "
+                    + "UNION ALL SELECT job_id FROM jobs_archive WHERE job_id IN (" + in + ")", String.class, args));
+        }
+        return existing;
+    }
+
+    /**
+     * Streams the ids of jobs created since {@code since}, archived or not. Archived jobs are
+     * selected by {@code completed_at}, which is indexed (and the partitioning key) and never
+     * before creation, so the archive part may also stream some older jobs.
+     */
+    public void forEachJobIdCreatedSince(LocalDateTime since, Consumer<String> action) {
+        Timestamp from = Timestamp.valueOf(since);
+        jdbcTemplate.query("SELECT job_id FROM jobs WHERE timestamp_created >= ? "
+                + "UNION ALL SELECT job_id FROM jobs_archive WHERE completed_at >= ?",
+                (RowCallbackHandler) rs -> action.accept(rs.getString(1)), from, from);
+    }
+
+    // Rows of a JDBC batch whose statement matched; the driver may report SUCCESS_NO_INFO (-2)
+    // for rewritten batches, which is treated as applied
+    private static <T> List<String> applied(List<T> rows, int[][] counts, Function<T, String> jobId) {
+        List<String> applied = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            if (counts[0][i] != 0) {
+                applied.add(jobId.apply(rows.get(i)));
+            }
+        }
+        return applied;
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time == null ? null : Timestamp.valueOf(time);
+    }
+
+    private static LocalDateTime localDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+}
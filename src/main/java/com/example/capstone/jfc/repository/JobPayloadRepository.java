@@ -0,0 +1,81 @@
+package com.example.capstone.jfc.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * JDBC access to the content-addressed {@code job_payloads} table.
+ */
+@Repository
+public class JobPayloadRepository {
+
+    // Content is identified by its hash, so an existing row already holds the same bytes; only its
+    // timestamp is refreshed, which keeps it from being purged before the new job references it
+    private static final String INSERT_PAYLOAD =
+            "INSERT INTO job_payloads (payload_hash, content, content_length, timestamp_created) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE timestamp_created = ?";
+
+    private static final int MAX_IN_LIST = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JobPayloadRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores each payload unless a row with the same hash exists.
+     *
+     * @param payloads content by SHA-256 hex
+     */
+    public void insertIfAbsent(Map<String, String> payloads) {
+        if (payloads.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<String, String>> rows = new ArrayList<>(payloads.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_PAYLOAD, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.getKey());
+            ps.setString(2, row.getValue());
+            ps.setInt(3, row.getValue().length());
+            ps.setTimestamp(4, now);
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Deletes up to {@code batchSize} payloads last stored before {@code cutoff} that no row in
+     * {@code jobs} or {@code jobs_archive} references. The cutoff protects payloads stored for
+     * jobs that are not in MySQL yet.
+     *
+     * @return the number of payloads deleted
+     */
+    public int purgeUnreferenced(LocalDateTime cutoff, int batchSize) {
+        return jdbcTemplate.update("DELETE FROM job_payloads WHERE timestamp_created < ? "
+                        + "AND NOT EXISTS (SELECT 1 FROM jobs WHERE jobs.payload_ref = job_payloads.payload_hash) "
+                        + "AND NOT EXISTS (SELECT 1 FROM jobs_archive WHERE jobs_archive.payload_ref = job_payloads.payload_hash) "
+                        + "LIMIT ?",
+                Timestamp.valueOf(cutoff), batchSize);
+    }
+
+    /**
+     * Content by hash for the given hashes; unknown hashes are missing from the result.
+     */
+    public Map<String, String> findByHashes(Collection<String> hashes) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(hashes));
+        Map<String, String> contents = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            List<String> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+            String sql = "SELECT payload_hash, content FROM job_payloads WHERE payload_hash IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                contents.put(rs.getString(1), rs.getString(2));
+            }, chunk.toArray());
+        }
+        return contents;
+    }
+}
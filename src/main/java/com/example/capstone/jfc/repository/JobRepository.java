@@ -2,21 +2,80 @@ package com.example.capstone.jfc.repository;
 
 import com.example.capstone.jfc.model.JobEntity;
 import com.example.capstone.jfc.model.JobStatus;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.example.capstone.jfc.model.JobSummary;
+import com.example.capstone.jfc.model.RetryWait;
+import com.example.capstone.jfc.model.ToolStatusCount;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface JobRepository extends JpaRepository<JobEntity, String> {
 
-//    Page<JobEntity> findByStatus(JobStatus status, Pageable pageable);
+    // Keyset pages in dispatch order: (status, priority desc, timestamp_created, job_id),
+    // served by idx_jobs_status_dispatch without touching the payload column.
 
-    List<JobEntity> findByStatus(JobStatus status);
+    @Query("select new com.example.capstone.jfc.model.JobSummary(" +
+            "j.jobId, j.toolId, j.priority, j.status, j.timestampCreated, j.timestampUpdated, j.leaseExpiresAt, " +
+            "j.dispatchEpoch) " +
+            "from JobEntity j where j.status = :status " +
+            "order by j.priority desc, j.timestampCreated asc, j.jobId asc")
+    List<JobSummary> findFirstPageByStatus(@Param("status") JobStatus status, Limit limit);
 
-    int countByToolIdAndStatus(String toolId, JobStatus status); //change
+    @Query("select new com.example.capstone.jfc.model.JobSummary(" +
+            "j.jobId, j.toolId, j.priority, j.status, j.timestampCreated, j.timestampUpdated, j.leaseExpiresAt, " +
+            "j.dispatchEpoch) " +
+            "from JobEntity j where j.status = :status and (j.priority < :priority " +
+            "or (j.priority = :priority and (j.timestampCreated > :created " +
+            "or (j.timestampCreated = :created and j.jobId > :jobId)))) " +
+            "order by j.priority desc, j.timestampCreated asc, j.jobId asc")
+    List<JobSummary> findNextPageByStatus(@Param("status") JobStatus status,
+                                          @Param("priority") Integer priority,
+                                          @Param("created") LocalDateTime created,
+                                          @Param("jobId") String jobId,
+                                          Limit limit);
 
-    int countByStatus(JobStatus jobStatus);
+    /**
+     * Returns the page of jobs in {@code status} that follows {@code after}, or the first page if it is null.
+     */
+    default List<JobSummary> findPageByStatus(JobStatus status, JobSummary after, int pageSize) {
+        if (after == null) {
+            return findFirstPageByStatus(status, Limit.of(pageSize));
+        }
+        return findNextPageByStatus(status, after.priority(), after.timestampCreated(), after.jobId(),
+                Limit.of(pageSize));
+    }
+
+    // Tools with jobs in any of the given statuses, and one tool's jobs in a status in jobId order;
+    // both served by idx_jobs_tool_status, for loading the tools an instance has just been given
+
+    @Query("select distinct j.toolId from JobEntity j where j.status in :statuses")
+    List<String> findToolIdsByStatusIn(@Param("statuses") Collection<JobStatus> statuses);
+
+    @Query("select new com.example.capstone.jfc.model.JobSummary(" +
+            "j.jobId, j.toolId, j.priority, j.status, j.timestampCreated, j.timestampUpdated, j.leaseExpiresAt, " +
+            "j.dispatchEpoch) " +
+            "from JobEntity j where j.toolId = :toolId and j.status = :status and j.jobId > :after " +
+            "order by j.jobId asc")
+    List<JobSummary> findToolPageByStatus(@Param("toolId") String toolId, @Param("status") JobStatus status,
+                                          @Param("after") String afterJobId, Limit limit);
+
+    // RETRY_WAIT jobs in jobId order, for re-arming retry timers
+    @Query("select new com.example.capstone.jfc.model.RetryWait(" +
+            "j.jobId, j.toolId, j.priority, j.timestampCreated, j.nextAttemptAt) " +
+            "from JobEntity j where j.status = com.example.capstone.jfc.model.JobStatus.RETRY_WAIT " +
+            "and j.jobId > :after order by j.jobId asc")
+    List<RetryWait> findRetryWaitingAfter(@Param("after") String afterJobId, Limit limit);
+
+    long countByToolIdAndStatus(String toolId, JobStatus status);
+
+    @Query("select new com.example.capstone.jfc.model.ToolStatusCount(j.toolId, j.status, count(j)) " +
+            "from JobEntity j group by j.toolId, j.status")
+    List<ToolStatusCount> countByToolAndStatus();
 }
@@ -2,8 +2,15 @@ package com.example.capstone.jfc.repository;
 
 import com.example.capstone.jfc.model.ToolConfigEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ToolConfigRepository extends JpaRepository<ToolConfigEntity, String> {
+
+    /**
+     * Cheap change detector for the whole table: moves whenever a row is added, removed or updated through JPA.
+     */
+    @Query("select concat(count(t), ':', coalesce(sum(t.version), 0)) from ToolConfigEntity t")
+    String versionFingerprint();
 }
@@ -0,0 +1,297 @@
+package com.example.capstone.jfc.serde;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.StatusMessage;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary layout of {@link JobMessage} and {@link StatusMessage}.
+ * <p>
+ * Every record starts with a header of {@link #MAGIC}, the schema version and the message type.
+ * Strings are written as a varint of (UTF-8 length + 1), 0 meaning null; ints as zigzag varints.
+ * <ul>
+ *     <li>job, v1: jobId, toolId, priority, flags, payload (deflated if {@link #FLAG_DEFLATED});
+ *     v2 appends dispatchEpoch</li>
+ *     <li>status, v1: jobId, toolId, status code (0 = the status follows as a string); v2 appends
+ *     dispatchEpoch</li>
+ * </ul>
+ * Schema changes may only append fields and bump the version. Readers ignore trailing bytes, so
+ * a record from a newer writer is still readable by an older instance during a rolling upgrade.
+ */
+final class BinaryCodec {
+
+    // Never the first byte of a JSON document, so both formats can share a topic
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 2;
+
+    static final byte TYPE_JOB = 1;
+    static final byte TYPE_STATUS = 2;
+
+    static final int FLAG_DEFLATED = 1;
+
+    static final int DEFAULT_MAX_INFLATED_BYTES = 16 * 1024 * 1024;
+
+    // Code 0 is reserved for a literal status string; never reorder, only append
+    private static final List<String> STATUS_CODES =
+            List.of("", "NEW", "IN_PROGRESS", "SUCCESS", "FAIL", StatusMessage.HEARTBEAT);
+
+    private BinaryCodec() {
+    }
+
+    static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    static byte[] encode(JobMessage message, int compressThresholdBytes) {
+        byte[] payload = utf8(message.payload());
+        int flags = 0;
+        if (payload != null && compressThresholdBytes > 0 && payload.length >= compressThresholdBytes) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                payload = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+
+        Writer out = new Writer(32 + (payload == null ? 0 : payload.length));
+        out.header(TYPE_JOB);
+        out.string(message.jobId());
+        out.string(message.toolId());
+        out.varint(zigzag(message.priority()));
+        out.varint(flags);
+        out.bytes(payload);
+        out.varint(zigzag(message.dispatchEpoch()));
+        return out.toByteArray();
+    }
+
+    static byte[] encode(StatusMessage message) {
+        Writer out = new Writer(64);
+        out.header(TYPE_STATUS);
+        out.string(message.jobId());
+        out.string(message.toolId());
+        int code = message.status() == null ? 0 : STATUS_CODES.indexOf(message.status());
+        if (code > 0) {
+            out.varint(code);
+        } else {
+            out.varint(0);
+            out.string(message.status());
+        }
+        out.varint(zigzag(message.dispatchEpoch()));
+        return out.toByteArray();
+    }
+
+    /**
+     * @param maxInflatedBytes limit on the size of a deflated payload once inflated
+     */
+    static Object decode(byte[] data, int maxInflatedBytes) {
+        Reader in = new Reader(data);
+        if (in.readByte() != MAGIC) {
+            throw new SerializationException("Not a JFC binary record");
+        }
+        int version = in.readByte();
+        if (version < 1) {
+            throw new SerializationException("Unsupported JFC schema version " + version);
+        }
+        byte type = in.readByte();
+        return switch (type) {
+            case TYPE_JOB -> {
+                String jobId = in.string();
+                String toolId = in.string();
+                int priority = unzigzag(in.varint());
+                int flags = in.varint();
+                byte[] payload = in.bytes();
+                if (payload != null && (flags & FLAG_DEFLATED) != 0) {
+                    payload = inflate(payload, maxInflatedBytes);
+                }
+                int dispatchEpoch = version >= 2 ? unzigzag(in.varint()) : 0;
+                yield new JobMessage(jobId, toolId,
+                        payload == null ? null : new String(payload, StandardCharsets.UTF_8), priority, dispatchEpoch);
+            }
+            case TYPE_STATUS -> {
+                String jobId = in.string();
+                String toolId = in.string();
+                int code = in.varint();
+                String status;
+                if (code == 0) {
+                    status = in.string();
+                } else if (code < STATUS_CODES.size()) {
+                    status = STATUS_CODES.get(code);
+                } else {
+                    throw new SerializationException("Unknown status code " + code);
+                }
+                yield new StatusMessage(jobId, toolId, status, version >= 2 ? unzigzag(in.varint()) : 0);
+            }
+            default -> throw new SerializationException("Unknown JFC message type " + type);
+        };
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int maxBytes) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(maxBytes, data.length * 4L));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SerializationException("Truncated compressed payload");
+                }
+                if (out.size() + n > maxBytes) {
+                    throw new SerializationException("Compressed payload inflates beyond " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt compressed payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        private Writer(int capacity) {
+            buf = new byte[capacity];
+        }
+
+        private void header(byte type) {
+            ensure(3);
+            buf[pos++] = MAGIC;
+            buf[pos++] = VERSION;
+            buf[pos++] = type;
+        }
+
+        private void varint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        private void string(String value) {
+            bytes(utf8(value));
+        }
+
+        private void bytes(byte[] value) {
+            if (value == null) {
+                varint(0);
+                return;
+            }
+            varint(value.length + 1);
+            ensure(value.length);
+            System.arraycopy(value, 0, buf, pos, value.length);
+            pos += value.length;
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return pos == buf.length ? buf : Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        private Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        private byte readByte() {
+            if (pos >= buf.length) {
+                throw new SerializationException("Truncated JFC record");
+            }
+            return buf[pos++];
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in JFC record");
+        }
+
+        private String string() {
+            int length = length();
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private byte[] bytes() {
+            int length = length();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        // -1 for null; the varint is unsigned, so anything below that is a corrupt record, not a null
+        private int length() {
+            int length = varint() - 1;
+            if (length < -1) {
+                throw new SerializationException("Negative length in JFC record");
+            }
+            if (length > buf.length - pos) {
+                throw new SerializationException("Truncated JFC record");
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.capstone.jfc.serde;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.StatusMessage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer for JFC messages. Reads both the {@link BinaryCodec} layout and JSON,
+ * telling them apart by the first byte, so producers can be switched between formats one at a
+ * time. A JSON object with a {@code status} field becomes a {@link StatusMessage}, anything
+ * else a {@link JobMessage}. A deflated payload may inflate to at most
+ * {@code jfc.serde.max-inflated-bytes}, so a small record cannot exhaust the heap.
+ */
+public class JfcDeserializer implements Deserializer<Object> {
+
+    public static final String MAX_INFLATED_CONFIG = "jfc.serde.max-inflated-bytes";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private int maxInflatedBytes = BinaryCodec.DEFAULT_MAX_INFLATED_BYTES;
+
+    public JfcDeserializer() {
+    }
+
+    public JfcDeserializer(int maxInflatedBytes) {
+        this.maxInflatedBytes = maxInflatedBytes;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object maxInflated = configs.get(MAX_INFLATED_CONFIG);
+        if (maxInflated != null) {
+            maxInflatedBytes = Integer.parseInt(maxInflated.toString());
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (BinaryCodec.isBinary(data)) {
+            return BinaryCodec.decode(data, maxInflatedBytes);
+        }
+
+        JsonNode json;
+        try {
+            json = MAPPER.readTree(data);
+        } catch (IOException e) {
+            throw new SerializationException("Can't parse JSON record from " + topic, e);
+        }
+        if (json == null || !json.isObject()) {
+            throw new SerializationException("Expected a JSON object on " + topic);
+        }
+        if (json.has("status")) {
+            return new StatusMessage(text(json, "jobId"), text(json, "toolId"), text(json, "status"),
+                    integer(json, "dispatchEpoch"));
+        }
+        return new JobMessage(text(json, "jobId"), text(json, "toolId"), text(json, "payload"),
+                integer(json, "priority"), integer(json, "dispatchEpoch"));
+    }
+
+    // Fields added later are missing from records written by older producers
+    private static int integer(JsonNode json, String field) {
+        JsonNode value = json.get(field);
+        return value == null || value.isNull() ? 0 : value.asInt();
+    }
+
+    private static String text(JsonNode json, String field) {
+        JsonNode value = json.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.capstone.jfc.serde;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.StatusMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer for JFC messages.
+ * <p>
+ * With {@code jfc.serde.format=binary} (the default) {@link JobMessage} and {@link StatusMessage}
+ * are written in the compact {@link BinaryCodec} layout, and job payloads of at least
+ * {@code jfc.serde.compress-threshold-bytes} are deflated (0 turns this off). With {@code json} they are written as
+ * the same JSON objects the topics carried before, for consumers that have not been upgraded.
+ * Raw {@code byte[]} values (records forwarded to the unprocessable topic) pass through untouched;
+ * any other value is written as JSON.
+ */
+public class JfcSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "jfc.serde.format";
+    public static final String COMPRESS_THRESHOLD_CONFIG = "jfc.serde.compress-threshold-bytes";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private boolean binary = true;
+    private int compressThresholdBytes;
+
+    public JfcSerializer() {
+    }
+
+    public JfcSerializer(String format, int compressThresholdBytes) {
+        this.binary = isBinaryFormat(format);
+        this.compressThresholdBytes = compressThresholdBytes;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object format = configs.get(FORMAT_CONFIG);
+        if (format != null) {
+            binary = isBinaryFormat(format.toString());
+        }
+        Object threshold = configs.get(COMPRESS_THRESHOLD_CONFIG);
+        if (threshold != null) {
+            compressThresholdBytes = Integer.parseInt(threshold.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] bytes) {
+            return bytes;
+        }
+        if (binary && data instanceof JobMessage job) {
+            return BinaryCodec.encode(job, compressThresholdBytes);
+        }
+        if (binary && data instanceof StatusMessage status) {
+            return BinaryCodec.encode(status);
+        }
+        try {
+            return MAPPER.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Can't serialize " + data.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static boolean isBinaryFormat(String format) {
+        return switch (format.trim().toLowerCase()) {
+            case "binary" -> true;
+            case "json" -> false;
+            default -> throw new IllegalArgumentException("Unknown " + FORMAT_CONFIG + ": " + format);
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.capstone.jfc.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Common part of the limiters that learn a tool's limit from its completions. Each tool
+ * starts at {@code initialLimit} and keeps smoothed failure rate and latency figures that
+ * subclasses base their adjustments on. A failure while the failure rate is above
+ * {@code failureRateThreshold}, a subclass reporting overload, or an expired lease cuts the
+ * limit by {@code backoffRatio}. Only one cut is taken per round trip: completions of jobs
+ * dispatched before the last cut describe the old limit and cannot cut it again.
+ */
+public abstract class AdaptiveConcurrencyLimiter implements ConcurrencyLimiter {
+
+    // Samples averaged by the recent latency, and by the baseline as it rises. The baseline
+    // follows lower latency at the recent pace, so it tracks the tool's unloaded latency
+    // and only slowly accepts that a tool has become slower.
+    private static final double RECENT_WINDOW = 10;
+    private static final double BASELINE_WINDOW = 500;
+    private static final double FAILURE_WINDOW = 20;
+
+    private final Map<String, ToolLimit> tools = new ConcurrentHashMap<>();
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final double failureRateThreshold;
+    private final double backoffRatio;
+
+    protected AdaptiveConcurrencyLimiter(int initialLimit, int minLimit,
+                                         double failureRateThreshold, double backoffRatio) {
+        this.initialLimit = Math.max(1, initialLimit);
+        this.minLimit = Math.max(1, minLimit);
+        this.failureRateThreshold = failureRateThreshold;
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public int limit(String toolId, int ceiling) {
+        if (ceiling <= 0) {
+            return ceiling;
+        }
+        ToolLimit tool = tool(toolId);
+        synchronized (tool) {
+            // The ceiling also bounds growth, so a lowered ceiling applies at once
+            tool.ceiling = ceiling;
+            tool.limit = Math.min(tool.limit, ceiling);
+            return Math.min(ceiling, Math.max(minLimit, (int) tool.limit));
+        }
+    }
+
+    @Override
+    public void onCompleted(String toolId, long dispatchedAt, long latencyMs, boolean failed, int inFlight) {
+        ToolLimit tool = tool(toolId);
+        synchronized (tool) {
+            tool.samples++;
+            tool.failureRate += ((failed ? 1 : 0) - tool.failureRate) / FAILURE_WINDOW;
+            tool.recentLatencyMs = average(tool.recentLatencyMs, latencyMs, RECENT_WINDOW, tool.samples);
+            tool.baselineLatencyMs = average(tool.baselineLatencyMs, latencyMs,
+                    latencyMs < tool.baselineLatencyMs ? RECENT_WINDOW : BASELINE_WINDOW, tool.samples);
+
+            if ((failed && tool.failureRate > failureRateThreshold) || overloaded(tool)) {
+                if (dispatchedAt >= tool.lastCutAt) {
+                    cut(tool);
+                }
+                return;
+            }
+            tool.limit = bounded(tool, adjust(tool, inFlight));
+        }
+    }
+
+    @Override
+    public void onDropped(String toolId) {
+        ToolLimit tool = tool(toolId);
+        synchronized (tool) {
+            cut(tool);
+        }
+    }
+
+    /**
+     * Whether the tool's latency shows it is taking more than it can handle.
+     */
+    protected boolean overloaded(ToolLimit tool) {
+        return false;
+    }
+
+    /**
+     * New limit after a healthy completion; the result is kept within the bounds by the caller.
+     */
+    protected abstract double adjust(ToolLimit tool, int inFlight);
+
+    private void cut(ToolLimit tool) {
+        tool.limit = bounded(tool, tool.limit * backoffRatio);
+        tool.lastCutAt = System.currentTimeMillis();
+    }
+
+    private double bounded(ToolLimit tool, double limit) {
+        return Math.max(minLimit, Math.min(tool.ceiling, limit));
+    }
+
+    // Exponentially weighted, seeded with the first sample
+    private static double average(double average, long sample, double window, long samples) {
+        return samples == 1 ? sample : average + (sample - average) / window;
+    }
+
+    private ToolLimit tool(String toolId) {
+        return tools.computeIfAbsent(toolId, id -> new ToolLimit(initialLimit));
+    }
+
+    /**
+     * Per-tool state; guarded by its own monitor.
+     */
+    protected static final class ToolLimit {
+        protected double limit;
+        protected double recentLatencyMs;
+        protected double baselineLatencyMs;
+        private double failureRate;
+        private int ceiling = Integer.MAX_VALUE;
+        private long samples;
+        private long lastCutAt;
+
+        private ToolLimit(int initialLimit) {
+            this.limit = initialLimit;
+        }
+    }
+}
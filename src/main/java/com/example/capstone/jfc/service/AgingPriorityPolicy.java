@@ -0,0 +1,37 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+
+import java.time.ZoneOffset;
+import java.util.Comparator;
+
+/**
+ * Priority order where a waiting job gains one priority level per {@code agingIntervalMs},
+ * so low-priority work is eventually served under a steady stream of high-priority jobs.
+ * <p>
+ * The effective priority {@code priority + (now - created) / interval} of every job grows at
+ * the same rate, so comparing {@code priority - created / interval} gives the same order at
+ * any point in time and the ready queues never need re-sorting.
+ */
+public class AgingPriorityPolicy implements SchedulingPolicy {
+
+    private final Comparator<QueuedJob> order;
+
+    public AgingPriorityPolicy(long agingIntervalMs) {
+        if (agingIntervalMs <= 0) {
+            throw new IllegalArgumentException("agingIntervalMs must be positive");
+        }
+        double intervalSeconds = agingIntervalMs / 1000.0;
+        this.order = Comparator
+                .comparingDouble((QueuedJob job) ->
+                        job.priority() - job.timestampCreated().toEpochSecond(ZoneOffset.UTC) / intervalSeconds)
+                .reversed()
+                .thenComparing(QueuedJob::timestampCreated)
+                .thenComparing(QueuedJob::jobId);
+    }
+
+    @Override
+    public Comparator<QueuedJob> jobOrder() {
+        return order;
+    }
+}
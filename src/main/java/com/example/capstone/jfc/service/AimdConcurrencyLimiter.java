@@ -0,0 +1,29 @@
+package com.example.capstone.jfc.service;
+
+/**
+ * Additive increase, multiplicative decrease: every healthy completion raises the limit by one
+ * while the tool is using at least half of it, and overload cuts it by the backoff ratio. Overload
+ * is a high failure rate, an expired lease, or (with {@code latencyThresholdMs} set) recent
+ * latency above the threshold.
+ */
+public class AimdConcurrencyLimiter extends AdaptiveConcurrencyLimiter {
+
+    private final long latencyThresholdMs;
+
+    public AimdConcurrencyLimiter(int initialLimit, int minLimit, double failureRateThreshold,
+                                  double backoffRatio, long latencyThresholdMs) {
+        super(initialLimit, minLimit, failureRateThreshold, backoffRatio);
+        this.latencyThresholdMs = latencyThresholdMs;
+    }
+
+    @Override
+    protected boolean overloaded(ToolLimit tool) {
+        return latencyThresholdMs > 0 && tool.recentLatencyMs > latencyThresholdMs;
+    }
+
+    @Override
+    protected double adjust(ToolLimit tool, int inFlight) {
+        // A tool that is not using its limit gives no evidence that it could take more
+        return inFlight * 2 >= tool.limit ? tool.limit + 1 : tool.limit;
+    }
+}
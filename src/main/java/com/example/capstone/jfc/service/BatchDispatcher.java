@@ -1,19 +1,29 @@
 package com.example.capstone.jfc.service;
 
 import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobMessage;
 import com.example.capstone.jfc.model.JobStatus;
 import com.example.capstone.jfc.model.ToolConfigEntity;
 import com.example.capstone.jfc.producer.JobProducer;
-import com.example.capstone.jfc.repository.JobRepository;
-import com.example.capstone.jfc.repository.ToolConfigRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import com.example.capstone.jfc.store.JobStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BatchDispatcher {
@@ -21,86 +31,213 @@ public class BatchDispatcher {
     private static final Logger LOGGER = LoggerFactory.getLogger(BatchDispatcher.class);
 
 
-    private final JobRepository jobRepository;
-    private final ToolConfigRepository toolConfigRepository;
+    private final JobStore jobStore;
+    private final ToolConfigRegistry toolConfigRegistry;
     private final JobProducer jobProducer;
+    private final DispatchIndex dispatchIndex;
+    private final ClusterOwnership clusterOwnership;
+    private final SlotLeaseManager slotLeaseManager;
+    private final JfcMetrics metrics;
+    private final JobEventHub jobEventHub;
+    private final PayloadStore payloadStore;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final DispatchRateLimiter rateLimiter;
 
     @Value("${jfc.global-concurrency-limit}")
     private int globalConcurrencyLimit;
 
-    public BatchDispatcher(JobRepository jobRepository,
-                           ToolConfigRepository toolConfigRepository,
-                           JobProducer jobProducer) {
-        this.jobRepository = jobRepository;
-        this.toolConfigRepository = toolConfigRepository;
+    // Fallback cycle for anything that did not come with a wake-up (e.g. a missed signal)
+    @Value("${jfc.dispatch.sweep-ms}")
+    private long sweepMs;
+
+    // At most one pending wake-up is kept, so a burst of signals collapses into one cycle
+    private final Semaphore wakeUps = new Semaphore(0);
+    private volatile Thread dispatchThread;
+
+    // Set by each cycle: whether work is held back by a rate limit, and when its next token is due
+    private volatile boolean rateLimited;
+    private volatile long nextPermitAt;
+
+    public BatchDispatcher(JobStore jobStore,
+                           ToolConfigRegistry toolConfigRegistry,
+                           JobProducer jobProducer,
+                           DispatchIndex dispatchIndex,
+                           ClusterOwnership clusterOwnership,
+                           SlotLeaseManager slotLeaseManager,
+                           JfcMetrics metrics,
+                           JobEventHub jobEventHub,
+                           PayloadStore payloadStore,
+                           ConcurrencyLimiter concurrencyLimiter,
+                           DispatchRateLimiter rateLimiter) {
+        this.jobStore = jobStore;
+        this.toolConfigRegistry = toolConfigRegistry;
         this.jobProducer = jobProducer;
+        this.dispatchIndex = dispatchIndex;
+        this.clusterOwnership = clusterOwnership;
+        this.slotLeaseManager = slotLeaseManager;
+        this.metrics = metrics;
+        this.jobEventHub = jobEventHub;
+        this.payloadStore = payloadStore;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.rateLimiter = rateLimiter;
     }
 
-    @Scheduled(fixedRate = 1000)
-    public void dispatchJobs() throws JsonProcessingException {
-        LOGGER.info("=== Starting dispatch cycle ===");
+    /**
+     * Asks for a dispatch cycle as soon as possible. Called when new work arrives or a slot frees up.
+     */
+    public void wakeUp() {
+        if (wakeUps.availablePermits() == 0) {
+            wakeUps.release();
+        }
+    }
 
-        int globalInProgress = jobRepository.countByStatus(JobStatus.IN_PROGRESS);
-        LOGGER.info("Total IN_PROGRESS jobs (all tools): {}", globalInProgress);
+    @EventListener
+    public void onToolConfigChanged(ToolConfigChangedEvent event) {
+        // A raised limit or a new tool may make queued work dispatchable
+        wakeUp();
+    }
 
-        if (globalInProgress >= globalConcurrencyLimit) {
-            LOGGER.info("Global concurrency limit reached. No new jobs can be dispatched.");
-            return;
-        }
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        dispatchThread = new Thread(this::runLoop, "jfc-dispatcher");
+        dispatchThread.setDaemon(true);
+        dispatchThread.start();
+    }
 
-        List<JobEntity> newJobs = jobRepository.findByStatus(JobStatus.NEW);
-        if (newJobs.isEmpty()) {
-            LOGGER.info("No NEW jobs available.");
-            return;
+    @PreDestroy
+    public void stop() {
+        Thread thread = dispatchThread;
+        dispatchThread = null;
+        if (thread != null) {
+            thread.interrupt();
         }
-        newJobs.sort(Comparator.comparing(JobEntity::getTimestampCreated));
-
-        int dispatchedCount = 0;
+    }
 
-        for (JobEntity job : newJobs) {
-            // global concurrency is at limit, break out entirely
-            if (globalInProgress >= globalConcurrencyLimit) {
-                LOGGER.info("Reached global concurrency limit while iterating jobs.");
+    private void runLoop() {
+        LOGGER.info("Dispatcher started (safety sweep every {} ms)", sweepMs);
+        while (dispatchThread == Thread.currentThread()) {
+            try {
+                long sweepNanos = TimeUnit.MILLISECONDS.toNanos(sweepMs);
+                long waitNanos = rateLimited
+                        ? Math.max(0, Math.min(nextPermitAt - System.nanoTime(), sweepNanos)) : sweepNanos;
+                wakeUps.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+                wakeUps.drainPermits();
+                dispatchJobs();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
                 break;
+            } catch (Exception e) {
+                LOGGER.error("Error during dispatch cycle", e);
             }
+        }
+        LOGGER.info("Dispatcher stopped");
+    }
 
-            String toolId = job.getToolId();
-            ToolConfigEntity config = toolConfigRepository.findById(toolId).orElse(null);
-            if (config == null) {
-                LOGGER.warn("No config found for tool '{}'; skipping job {}", toolId, job.getJobId());
-                continue; // skip this job, maybe the next job belongs to a valid tool
-            }
+    public void dispatchJobs() {
+        // Ownership cannot move to another instance while a cycle is sending for it
+        Lock cycleLock = clusterOwnership.cycleLock().readLock();
+        cycleLock.lock();
+        try {
+            dispatchOwnedJobs();
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    private void dispatchOwnedJobs() {
+        rateLimited = false;
+        if (!dispatchIndex.isReady()) {
+            LOGGER.info("Dispatch index not rebuilt yet; skipping dispatch cycle.");
+            return;
+        }
 
-            int toolLimit = config.getMaxConcurrentJobs();
+        int globalLimit = clusterOwnership.localShare(globalConcurrencyLimit);
+        if (dispatchIndex.globalInFlight() >= globalLimit) {
+            LOGGER.debug("Global concurrency limit reached. No new jobs can be dispatched.");
+            return;
+        }
 
-            int toolInProgress = jobRepository.countByToolIdAndStatus(toolId, JobStatus.IN_PROGRESS);
+        // One snapshot per cycle, so a concurrent config change applies to the whole cycle or none of it
+        Map<String, ToolConfigEntity> configs = toolConfigRegistry.all();
+        Map<String, Integer> toolLimits = new HashMap<>();
+        // The configured limit is the ceiling; the limiter may hold a tool below it
+        configs.forEach((toolId, config) -> toolLimits.put(toolId, config.getMaxConcurrentJobs() == null ? null
+                : concurrencyLimiter.limit(toolId, config.getMaxConcurrentJobs())));
+
+        long cycleStart = System.nanoTime();
+
+        // The dispatch decision itself is made in memory; the database is only read for the winners
+        DispatchRateLimiter.Cycle rates = rateLimiter.beginCycle(configs);
+        List<QueuedJob> claimed = dispatchIndex.claim(toolLimits, globalLimit,
+                slotLeaseManager.newLeaseDeadline(), rates);
+        // Rate-limited work cannot go out before its next token, so sleep exactly that long instead of polling
+        nextPermitAt = rates.nextPermitAt();
+        rateLimited = rates.refused();
+        if (claimed.isEmpty()) {
+            LOGGER.debug("No dispatchable jobs this cycle.");
+            return;
+        }
 
-            if (toolInProgress >= toolLimit) {
-                LOGGER.info("Tool {} is at concurrency limit ({}). Cannot dispatch job {} right now.",
-                        toolId, toolLimit, job.getJobId());
+        Map<String, JobEntity> jobs = jobStore.findJobs(
+                        claimed.stream().map(QueuedJob::jobId).toList()).stream()
+                .collect(Collectors.toMap(JobEntity::getJobId, Function.identity()));
+        Map<String, String> payloads = payloadStore.payloads(jobs.values());
+
+        // Publish the whole cycle before waiting on anything, so the producer can batch it
+        Map<String, CompletableFuture<?>> sends = new LinkedHashMap<>();
+        for (QueuedJob queued : claimed) {
+            JobEntity job = jobs.get(queued.jobId());
+            if (job == null || job.getStatus() != JobStatus.NEW) {
+                LOGGER.warn("Job {} is no longer NEW in the database; dropping it from the dispatch index",
+                        queued.jobId());
+                dispatchIndex.release(queued.jobId());
+                continue;
+            }
+            if (!payloads.containsKey(job.getJobId())) {
+                // Cannot happen unless job_payloads was edited by hand; retrying would not bring it back
+                LOGGER.error("Payload {} of job {} is missing; failing the job", job.getPayloadRef(), job.getJobId());
+                jobStore.transitionStatus(List.of(job.getJobId()), JobStatus.NEW, JobStatus.FAIL);
+                dispatchIndex.release(job.getJobId());
+                jobEventHub.publish(job.getJobId(), job.getToolId(), JobStatus.FAIL);
                 continue;
             }
 
-            job.setStatus(JobStatus.IN_PROGRESS);
-            jobRepository.save(job);
+            // markInProgress bumps the row's epoch to the same number
+            int dispatchEpoch = job.getDispatchEpoch() + 1;
+            dispatchIndex.setDispatchEpoch(job.getJobId(), dispatchEpoch);
+            JobMessage message = new JobMessage(job.getJobId(), job.getToolId(), payloads.get(job.getJobId()),
+                    job.getPriority() == null ? 0 : job.getPriority(), dispatchEpoch);
 
-            Map<String, Object> message = new HashMap<>();
-            message.put("jobId", job.getJobId());
-            message.put("toolId", job.getToolId());
-            message.put("payload", job.getPayload());
-            message.put("priority", job.getPriority());
+            String topic = configs.get(job.getToolId()).getDestinationTopic();
+            sends.put(job.getJobId(), jobProducer.sendJobToTool(topic, message));
+        }
 
-            jobProducer.sendJobToTool(config.getDestinationTopic(), message);
+        // Every send completes within the producer's delivery.timeout.ms, successfully or not
+        List<String> confirmed = new ArrayList<>(sends.size());
+        sends.forEach((jobId, send) -> {
+            try {
+                send.join();
+                confirmed.add(jobId);
+            } catch (CompletionException e) {
+                LOGGER.error("Failed to send job {} to its tool; returning it to the queue", jobId, e.getCause());
+                dispatchIndex.requeue(jobId);
+            }
+        });
 
-            dispatchedCount++;
-            globalInProgress++;
+        // Conditional on NEW, so a tool that already reported back is not overwritten
+        int updated = jobStore.markInProgress(confirmed, slotLeaseManager.newLeaseExpiry());
 
-            LOGGER.info("Dispatched job {} for tool {}. (toolInProgress={} -> after increment, globalInProgress={})",
-                    job.getJobId(), toolId, toolInProgress, globalInProgress);
+        long now = System.currentTimeMillis();
+        for (String jobId : confirmed) {
+            JobEntity job = jobs.get(jobId);
+            metrics.recordTimeInState(job.getToolId(), JobStatus.NEW,
+                    now - job.getTimestampCreated().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            jobEventHub.publish(jobId, job.getToolId(), JobStatus.IN_PROGRESS);
         }
+        metrics.recordDispatchCycle(System.nanoTime() - cycleStart);
 
-        LOGGER.info("Dispatch cycle complete. Dispatched {} new jobs. Now {} total IN_PROGRESS.",
-                dispatchedCount, globalInProgress);
-        LOGGER.info("=== End of dispatch cycle ===");
+        LOGGER.debug("Dispatch cycle complete. Dispatched {} new jobs ({} marked IN_PROGRESS, {} failed). " +
+                        "Now {} total IN_PROGRESS.",
+                confirmed.size(), updated, sends.size() - confirmed.size(), dispatchIndex.globalInFlight());
     }
 }
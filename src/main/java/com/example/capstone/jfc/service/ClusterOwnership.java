@@ -0,0 +1,164 @@
+package com.example.capstone.jfc.service;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Decides which tools this instance dispatches for when several JFC instances run together.
+ * <p>
+ * Ingestion records are keyed by toolId, so every job of a tool lands on one partition of the
+ * ingestion topic, and the instance that is assigned that partition owns the tool: it is the
+ * only one that queues, dispatches and counts slots for it, which keeps per-tool limits exact.
+ * The global limit is split between instances in proportion to the partitions they own.
+ * <p>
+ * A dispatch cycle holds the read side of {@link #cycleLock()}; revocation takes the write side,
+ * so a partition is only handed to another instance after any cycle using it has finished.
+ * With cluster mode off, this instance owns every tool.
+ */
+@Component
+public class ClusterOwnership implements ConsumerAwareRebalanceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterOwnership.class);
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadWriteLock cycleLock = new ReentrantReadWriteLock();
+
+    @Value("${jfc.cluster.enabled}")
+    private boolean enabled;
+
+    @Value("${jfc.cluster.instance-id}")
+    private String instanceId;
+
+    @Value("${jfc.topics.ingestion}")
+    private String ingestionTopic;
+
+    private volatile Set<Integer> ownedPartitions = Set.of();
+    private volatile int partitionCount;
+
+    public ClusterOwnership(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ReadWriteLock cycleLock() {
+        return cycleLock;
+    }
+
+    /**
+     * Consumer group for the status topic. In cluster mode every instance reads every status
+     * record and applies the ones for the tools it owns.
+     */
+    public String statusGroupId() {
+        return enabled ? "jfc-status-consumer-" + instanceId : "jfc-status-consumer";
+    }
+
+    public Set<Integer> ownedPartitions() {
+        return ownedPartitions;
+    }
+
+    public boolean owns(String toolId) {
+        if (!enabled) {
+            return true;
+        }
+        int partitions = partitionCount;
+        return partitions > 0 && ownedPartitions.contains(partitionFor(toolId, partitions));
+    }
+
+    /**
+     * This instance's share of a cluster-wide limit. The limit is dealt out per partition, the
+     * remainder one each to the lowest partitions, so the shares of all instances add up to it.
+     * An instance that owns any partition gets at least 1, or its tools could never dispatch;
+     * with fewer slots than instances the cluster can therefore exceed the limit.
+     */
+    public int localShare(int clusterLimit) {
+        if (!enabled) {
+            return clusterLimit;
+        }
+        int partitions = partitionCount;
+        Set<Integer> owned = ownedPartitions;
+        if (partitions == 0 || owned.isEmpty()) {
+            return 0;
+        }
+        int share = 0;
+        for (int partition : owned) {
+            share += clusterLimit / partitions + (partition < clusterLimit % partitions ? 1 : 0);
+        }
+        return Math.max(1, share);
+    }
+
+    public double localShare(double clusterRate) {
+        if (!enabled) {
+            return clusterRate;
+        }
+        int partitions = partitionCount;
+        return partitions == 0 ? 0 : clusterRate * ownedPartitions.size() / partitions;
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        update(consumer, partitions, false);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        update(consumer, partitions, false);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        update(consumer, partitions, true);
+    }
+
+    private void update(Consumer<?, ?> consumer, Collection<TopicPartition> partitions, boolean assigned) {
+        if (!enabled) {
+            return;
+        }
+        Set<Integer> changed = new HashSet<>();
+        for (TopicPartition partition : partitions) {
+            if (partition.topic().equals(ingestionTopic)) {
+                changed.add(partition.partition());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        cycleLock.writeLock().lock();
+        try {
+            Set<Integer> owned = new HashSet<>(ownedPartitions);
+            if (assigned) {
+                partitionCount = consumer.partitionsFor(ingestionTopic).size();
+                owned.addAll(changed);
+            } else {
+                owned.removeAll(changed);
+            }
+            ownedPartitions = Set.copyOf(owned);
+            LOGGER.info("Instance {} now owns ingestion partitions {} of {}", instanceId, ownedPartitions, partitionCount);
+            eventPublisher.publishEvent(new OwnershipChangedEvent(ownedPartitions, partitionCount));
+        } finally {
+            cycleLock.writeLock().unlock();
+        }
+    }
+
+    // Same mapping as Kafka's default partitioner for a String key
+    static int partitionFor(String toolId, int partitions) {
+        return Utils.toPositive(Utils.murmur2(toolId.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.capstone.jfc.service;
+
+/**
+ * Decides how many jobs each tool may have in flight. The tool's configured
+ * {@code maxConcurrentJobs} is always the ceiling; adaptive limiters move the effective limit
+ * below it based on the latency and failures seen on the status stream.
+ */
+public interface ConcurrencyLimiter {
+
+    /**
+     * Limit to dispatch against this cycle; never more than {@code ceiling}.
+     */
+    int limit(String toolId, int ceiling);
+
+    /**
+     * A dispatched job came back with a final status or went to RETRY_WAIT.
+     *
+     * @param dispatchedAt when the job was handed out (epoch millis)
+     * @param latencyMs    time from dispatch to the status
+     * @param inFlight     the tool's in-flight jobs, counting this one
+     */
+    default void onCompleted(String toolId, long dispatchedAt, long latencyMs, boolean failed, int inFlight) {
+    }
+
+    /**
+     * Slot leases of the tool's jobs expired without a word from the tool.
+     */
+    default void onDropped(String toolId) {
+    }
+}
@@ -0,0 +1,459 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.JobSummary;
+import com.example.capstone.jfc.repository.JobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory view of the work the dispatcher cares about: a ready queue per tool
+ * (NEW jobs in the order of the configured {@link SchedulingPolicy}) and the set of jobs currently
+ * in flight per tool. Consumers keep it up to date incrementally, so a dispatch
+ * decision never has to go back to the database.
+ */
+@Component
+public class DispatchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DispatchIndex.class);
+
+    private final JobRepository jobRepository;
+    private final SchedulingPolicy schedulingPolicy;
+    private final ClusterOwnership clusterOwnership;
+
+    private final Map<String, ToolQueue> toolQueues = new HashMap<>();
+
+    // Everything we know about by jobId, so updates are idempotent
+    private final Map<String, String> queuedJobs = new HashMap<>();
+    private final Map<String, QueuedJob> inFlightJobs = new HashMap<>();
+    private final Map<String, Long> dispatchTimes = new HashMap<>();
+
+    // Epoch of the dispatch each in-flight job is out on, 0 until the dispatcher has numbered it
+    private final Map<String, Integer> dispatchEpochs = new HashMap<>();
+
+    // Slot lease per in-flight job, and the same leases ordered by deadline for expiry
+    private final Map<String, Long> leaseDeadlines = new HashMap<>();
+    private final TreeSet<Lease> leaseExpiries = new TreeSet<>(
+            Comparator.comparingLong(Lease::deadline).thenComparing(Lease::jobId));
+
+    private volatile boolean ready;
+
+    // Cluster mode: ingestion partitions whose tools have been loaded, at the partition count they were mapped with
+    private final Set<Integer> loadedPartitions = new HashSet<>();
+    private int loadedPartitionCount;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("jfc-dispatch-index-loader").daemon().factory());
+
+    @Value("${jfc.jobs.page-size}")
+    private int pageSize;
+
+    @Value("${jfc.leases.duration-ms}")
+    private long leaseDurationMs;
+
+    public DispatchIndex(JobRepository jobRepository, SchedulingPolicy schedulingPolicy,
+                         ClusterOwnership clusterOwnership) {
+        this.jobRepository = jobRepository;
+        this.schedulingPolicy = schedulingPolicy;
+        this.clusterOwnership = clusterOwnership;
+    }
+
+    /**
+     * Loads NEW and IN_PROGRESS jobs of the tools this instance owns, one keyset page at a
+     * time. Runs under the index lock so that consumer updates racing with startup are
+     * applied after the snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        load();
+        loadedPartitions.addAll(clusterOwnership.ownedPartitions());
+        ready = true;
+        LOGGER.info("Dispatch index rebuilt in {} ms: {} queued, {} in flight",
+                System.currentTimeMillis() - start, queuedJobs.size(), inFlightJobs.size());
+    }
+
+    /**
+     * Drops the tools this instance no longer owns and starts loading the ones it has just been
+     * given. Runs in the rebalance callback, so only the drop happens here; the new tools' rows
+     * are read on a background thread.
+     */
+    @EventListener
+    public synchronized void onOwnershipChanged(OwnershipChangedEvent event) {
+        Iterator<ToolQueue> queues = toolQueues.values().iterator();
+        while (queues.hasNext()) {
+            ToolQueue queue = queues.next();
+            if (!clusterOwnership.owns(queue.toolId)) {
+                queue.ready.forEach(job -> queuedJobs.remove(job.jobId()));
+                queues.remove();
+            }
+        }
+        inFlightJobs.values().removeIf(job -> !clusterOwnership.owns(job.toolId()));
+        leaseDeadlines.keySet().retainAll(inFlightJobs.keySet());
+        dispatchTimes.keySet().retainAll(inFlightJobs.keySet());
+        dispatchEpochs.keySet().retainAll(inFlightJobs.keySet());
+        leaseExpiries.removeIf(lease -> !leaseDeadlines.containsKey(lease.jobId()));
+
+        if (!ready) {
+            return; // rebuild() loads whatever is owned by then
+        }
+        if (event.partitionCount() != loadedPartitionCount) {
+            loadedPartitions.clear(); // tools map to different partitions now
+            loadedPartitionCount = event.partitionCount();
+        }
+        loadedPartitions.retainAll(event.ownedPartitions());
+        Set<Integer> gained = new HashSet<>(event.ownedPartitions());
+        gained.removeAll(loadedPartitions);
+        if (!gained.isEmpty()) {
+            loadedPartitions.addAll(gained);
+            loader.execute(() -> loadPartitions(gained, event.partitionCount()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        loader.shutdownNow();
+    }
+
+    // Each page is read and applied under the index lock, so a status change cannot slip in between
+    private void loadPartitions(Set<Integer> partitions, int partitionCount) {
+        long start = System.currentTimeMillis();
+        try {
+            List<String> toolIds = jobRepository.findToolIdsByStatusIn(List.of(JobStatus.NEW, JobStatus.IN_PROGRESS));
+            int loaded = 0;
+            for (String toolId : toolIds) {
+                if (partitions.contains(ClusterOwnership.partitionFor(toolId, partitionCount))) {
+                    loaded += loadTool(toolId, JobStatus.IN_PROGRESS) + loadTool(toolId, JobStatus.NEW);
+                }
+            }
+            LOGGER.info("Dispatch index loaded {} jobs for ingestion partitions {} in {} ms",
+                    loaded, partitions, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error loading the dispatch index for ingestion partitions {}; retried on the next ownership change",
+                    partitions, e);
+            synchronized (this) {
+                loadedPartitions.removeAll(partitions);
+            }
+        }
+    }
+
+    private int loadTool(String toolId, JobStatus status) {
+        int loaded = 0;
+        String after = "";
+        while (true) {
+            synchronized (this) {
+                if (!clusterOwnership.owns(toolId)) {
+                    return loaded; // given away again meanwhile
+                }
+                List<JobSummary> page = jobRepository.findToolPageByStatus(toolId, status, after, Limit.of(pageSize));
+                for (JobSummary job : page) {
+                    if (status == JobStatus.IN_PROGRESS) {
+                        markInFlight(QueuedJob.of(job), leaseDeadline(job), epochMillis(job.timestampUpdated()),
+                                dispatchEpoch(job));
+                    } else {
+                        enqueue(QueuedJob.of(job));
+                    }
+                }
+                loaded += page.size();
+                if (page.size() < pageSize) {
+                    return loaded;
+                }
+                after = page.get(page.size() - 1).jobId();
+            }
+        }
+    }
+
+    private void load() {
+        List<JobSummary> page = jobRepository.findPageByStatus(JobStatus.IN_PROGRESS, null, pageSize);
+        while (!page.isEmpty()) {
+            page.forEach(job -> markInFlight(QueuedJob.of(job), leaseDeadline(job), epochMillis(job.timestampUpdated()),
+                    dispatchEpoch(job)));
+            page = jobRepository.findPageByStatus(JobStatus.IN_PROGRESS, page.get(page.size() - 1), pageSize);
+        }
+        page = jobRepository.findPageByStatus(JobStatus.NEW, null, pageSize);
+        while (!page.isEmpty()) {
+            page.forEach(job -> enqueue(QueuedJob.of(job)));
+            page = jobRepository.findPageByStatus(JobStatus.NEW, page.get(page.size() - 1), pageSize);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Adds a NEW job to its tool's ready queue. Jobs already queued or in flight, and jobs
+     * of tools owned by another instance, are ignored.
+     */
+    public synchronized void enqueue(QueuedJob job) {
+        if (queuedJobs.containsKey(job.jobId()) || inFlightJobs.containsKey(job.jobId())
+                || !clusterOwnership.owns(job.toolId())) {
+            return;
+        }
+        toolQueue(job.toolId()).ready.add(job);
+        queuedJobs.put(job.jobId(), job.toolId());
+    }
+
+    /**
+     * Picks the jobs to dispatch this cycle and moves them to in-flight. Tools are served
+     * in the order chosen by the {@link SchedulingPolicy}; a tool leaves the candidate heap
+     * as soon as it is saturated, so its backlog is never looked at.
+     *
+     * @param toolLimits    concurrency limit per toolId; tools missing from the map are skipped
+     * @param globalLimit   limit on the total number of in-flight jobs
+     * @param leaseDeadline epoch millis at which the claimed slots expire unless renewed
+     */
+    public List<QueuedJob> claim(Map<String, Integer> toolLimits, int globalLimit, long leaseDeadline) {
+        return claim(toolLimits, globalLimit, leaseDeadline, Throttle.NONE);
+    }
+
+    /**
+     * Like {@link #claim(Map, int, long)}, but every job must also get a permit from
+     * {@code throttle}; a tool that is refused one leaves the candidate heap for this cycle.
+     */
+    public synchronized List<QueuedJob> claim(Map<String, Integer> toolLimits, int globalLimit, long leaseDeadline,
+                                              Throttle throttle) {
+        int globalCapacity = globalLimit - inFlightJobs.size();
+        if (globalCapacity <= 0) {
+            return List.of();
+        }
+
+        List<ToolQueue> eligible = new ArrayList<>();
+        for (ToolQueue queue : toolQueues.values()) {
+            Integer limit = toolLimits.get(queue.toolId);
+            if (!queue.ready.isEmpty() && limit != null && queue.inFlight < limit) {
+                eligible.add(queue);
+            }
+        }
+        if (eligible.isEmpty()) {
+            return List.of();
+        }
+        schedulingPolicy.beginCycle(eligible.stream().map(queue -> queue.toolId).toList());
+
+        PriorityQueue<ToolQueue> candidates = new PriorityQueue<>((a, b) ->
+                schedulingPolicy.compareTools(a.toolId, a.ready.first(), b.toolId, b.ready.first()));
+        candidates.addAll(eligible);
+
+        long now = System.currentTimeMillis();
+        List<QueuedJob> claimed = new ArrayList<>();
+        while (claimed.size() < globalCapacity && !candidates.isEmpty()) {
+            ToolQueue queue = candidates.poll();
+            if (!throttle.tryAcquire(queue.toolId)) {
+                if (throttle.exhausted()) {
+                    break;
+                }
+                continue;
+            }
+            QueuedJob job = queue.ready.pollFirst();
+            queuedJobs.remove(job.jobId());
+            markInFlight(job, leaseDeadline, now, 0);
+            schedulingPolicy.onDispatched(job);
+            claimed.add(job);
+
+            if (!queue.ready.isEmpty() && queue.inFlight < toolLimits.get(queue.toolId)) {
+                candidates.add(queue);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Frees the slot held by an in-flight job (terminal status, or a claim that could not be sent).
+     */
+    public synchronized void release(String jobId) {
+        QueuedJob job = inFlightJobs.remove(jobId);
+        if (job != null) {
+            toolQueue(job.toolId()).inFlight--;
+            dispatchTimes.remove(jobId);
+            dispatchEpochs.remove(jobId);
+            Long deadline = leaseDeadlines.remove(jobId);
+            if (deadline != null) {
+                leaseExpiries.remove(new Lease(jobId, deadline));
+            }
+        }
+    }
+
+    /**
+     * Records the epoch a claimed job is being sent out with. Must happen before the send, so
+     * the tool's heartbeats for it can be told apart from those of an earlier dispatch.
+     */
+    public synchronized void setDispatchEpoch(String jobId, int dispatchEpoch) {
+        if (inFlightJobs.containsKey(jobId)) {
+            dispatchEpochs.put(jobId, dispatchEpoch);
+        }
+    }
+
+    /**
+     * Pushes out the slot lease of an in-flight job, if the heartbeat is for the dispatch the
+     * job is out on. A heartbeat without an epoch (0) renews whatever dispatch is in flight.
+     *
+     * @return false if the job is not in flight here, or is out on a different dispatch
+     */
+    public synchronized boolean renewLease(String jobId, int dispatchEpoch, long deadline) {
+        Long previous = leaseDeadlines.get(jobId);
+        if (previous == null || dispatchEpoch != 0 && dispatchEpoch != dispatchEpochs.get(jobId)) {
+            return false;
+        }
+        leaseExpiries.remove(new Lease(jobId, previous));
+        leaseDeadlines.put(jobId, deadline);
+        leaseExpiries.add(new Lease(jobId, deadline));
+        return true;
+    }
+
+    /**
+     * Frees the slots of every in-flight job whose lease ended at or before {@code now}.
+     *
+     * @return the jobs whose slots were reclaimed
+     */
+    public synchronized List<QueuedJob> expireLeases(long now) {
+        List<QueuedJob> expired = new ArrayList<>();
+        while (!leaseExpiries.isEmpty() && leaseExpiries.first().deadline() <= now) {
+            String jobId = leaseExpiries.first().jobId();
+            expired.add(inFlightJobs.get(jobId));
+            release(jobId);
+        }
+        return expired;
+    }
+
+    /**
+     * Puts an in-flight job back at its original place in the ready queue.
+     *
+     * @return false if the job was not in flight
+     */
+    public synchronized boolean requeue(String jobId) {
+        QueuedJob job = inFlightJobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        release(jobId);
+        enqueue(job);
+        return true;
+    }
+
+    /**
+     * When the job was handed out (epoch millis), or null if it is not in flight here.
+     */
+    public synchronized Long dispatchedAt(String jobId) {
+        return dispatchTimes.get(jobId);
+    }
+
+    public synchronized int globalInFlight() {
+        return inFlightJobs.size();
+    }
+
+    public synchronized int globalQueued() {
+        return queuedJobs.size();
+    }
+
+    public synchronized int inFlight(String toolId) {
+        ToolQueue queue = toolQueues.get(toolId);
+        return queue == null ? 0 : queue.inFlight;
+    }
+
+    public synchronized int queued(String toolId) {
+        ToolQueue queue = toolQueues.get(toolId);
+        return queue == null ? 0 : queue.ready.size();
+    }
+
+    private void markInFlight(QueuedJob job, long leaseDeadline, long dispatchedAt, int dispatchEpoch) {
+        if (clusterOwnership.owns(job.toolId()) && inFlightJobs.putIfAbsent(job.jobId(), job) == null) {
+            toolQueue(job.toolId()).inFlight++;
+            dispatchTimes.put(job.jobId(), dispatchedAt);
+            dispatchEpochs.put(job.jobId(), dispatchEpoch);
+            leaseDeadlines.put(job.jobId(), leaseDeadline);
+            leaseExpiries.add(new Lease(job.jobId(), leaseDeadline));
+        }
+    }
+
+    // Checkpointed lease of an IN_PROGRESS row, or a fresh one for rows written before leases existed
+    private long leaseDeadline(JobSummary job) {
+        if (job.leaseExpiresAt() == null) {
+            return System.currentTimeMillis() + leaseDurationMs;
+        }
+        return epochMillis(job.leaseExpiresAt());
+    }
+
+    private static int dispatchEpoch(JobSummary job) {
+        return job.dispatchEpoch() == null ? 0 : job.dispatchEpoch();
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time == null ? System.currentTimeMillis() : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private ToolQueue toolQueue(String toolId) {
+        return toolQueues.computeIfAbsent(toolId, id -> new ToolQueue(id, schedulingPolicy.jobOrder()));
+    }
+
+    private static final class ToolQueue {
+        private final String toolId;
+        private final TreeSet<QueuedJob> ready;
+        private int inFlight;
+
+        private ToolQueue(String toolId, Comparator<QueuedJob> jobOrder) {
+            this.toolId = toolId;
+            this.ready = new TreeSet<>(jobOrder);
+        }
+    }
+
+    private record Lease(String jobId, long deadline) {
+    }
+
+    /**
+     * Rate-based admission on top of the concurrency limits, consulted once per claimed job.
+     */
+    public interface Throttle {
+
+        Throttle NONE = new Throttle() {
+            @Override
+            public boolean tryAcquire(String toolId) {
+                return true;
+            }
+
+            @Override
+            public boolean exhausted() {
+                return false;
+            }
+        };
+
+        /**
+         * Takes a permit to dispatch one job of {@code toolId}.
+         */
+        boolean tryAcquire(String toolId);
+
+        /**
+         * True once no tool can get a permit any more this cycle.
+         */
+        boolean exhausted();
+    }
+
+    /**
+     * The part of a job the dispatcher needs to order it; the payload stays in the database.
+     */
+    public record QueuedJob(String jobId, String toolId, int priority, LocalDateTime timestampCreated) {
+
+        public static QueuedJob of(JobEntity job) {
+            return new QueuedJob(job.getJobId(), job.getToolId(),
+                    job.getPriority() == null ? 0 : job.getPriority(),
+                    job.getTimestampCreated() == null ? LocalDateTime.MIN : job.getTimestampCreated());
+        }
+
+        public static QueuedJob of(JobSummary job) {
+            return new QueuedJob(job.jobId(), job.toolId(),
+                    job.priority() == null ? 0 : job.priority(),
+                    job.timestampCreated() == null ? LocalDateTime.MIN : job.timestampCreated());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Requests-per-second limits on dispatch, per tool ({@code rateLimitPerSecond} and
+ * {@code rateLimitBurst} on the tool config) and across all tools ({@code jfc.rate-limit.*}),
+ * each a {@link TokenBucket}. Used as the {@link DispatchIndex.Throttle} of a dispatch cycle;
+ * the cycle also learns when the first refused tool will have a token again, so the dispatcher
+ * can sleep until then.
+ */
+@Component
+public class DispatchRateLimiter {
+
+    private final ClusterOwnership clusterOwnership;
+
+    private final Map<String, TokenBucket> toolBuckets = new ConcurrentHashMap<>();
+    private volatile TokenBucket globalBucket;
+
+    @Value("${jfc.rate-limit.global-per-second}")
+    private double globalPerSecond;
+
+    @Value("${jfc.rate-limit.global-burst}")
+    private int globalBurst;
+
+    public DispatchRateLimiter(ClusterOwnership clusterOwnership) {
+        this.clusterOwnership = clusterOwnership;
+    }
+
+    /**
+     * A throttle for one dispatch cycle, against the given tool config snapshot.
+     */
+    public Cycle beginCycle(Map<String, ToolConfigEntity> configs) {
+        long now = System.nanoTime();
+        toolBuckets.keySet().retainAll(configs.keySet());
+        // In cluster mode each instance gets its share of the global rate, like the global concurrency limit
+        double globalRate = globalPerSecond > 0 ? clusterOwnership.localShare(globalPerSecond) : 0;
+        TokenBucket global = globalBucket;
+        if (globalRate <= 0) {
+            global = null;
+        } else if (global == null || !global.hasSettings(globalRate, globalBurst)) {
+            global = new TokenBucket(globalRate, globalBurst, now);
+        }
+        globalBucket = global;
+        return new Cycle(configs, global, now);
+    }
+
+    private TokenBucket toolBucket(ToolConfigEntity config, long now) {
+        Double rate = config.getRateLimitPerSecond();
+        if (rate == null || rate <= 0) {
+            toolBuckets.remove(config.getToolId());
+            return null;
+        }
+        int burst = config.getRateLimitBurst() == null ? 1 : config.getRateLimitBurst();
+        TokenBucket bucket = toolBuckets.get(config.getToolId());
+        if (bucket == null || !bucket.hasSettings(rate, burst)) {
+            bucket = new TokenBucket(rate, burst, now);
+            toolBuckets.put(config.getToolId(), bucket);
+        }
+        return bucket;
+    }
+
+    /**
+     * Hands out permits for one cycle and keeps the shortest wait among the refusals.
+     */
+    public final class Cycle implements DispatchIndex.Throttle {
+
+        private final Map<String, ToolConfigEntity> configs;
+        private final TokenBucket global;
+        private final long now;
+        private long nextPermitNanos = Long.MAX_VALUE;
+        private boolean exhausted;
+
+        private Cycle(Map<String, ToolConfigEntity> configs, TokenBucket global, long now) {
+            this.configs = configs;
+            this.global = global;
+            this.now = now;
+        }
+
+        @Override
+        public boolean tryAcquire(String toolId) {
+            ToolConfigEntity config = configs.get(toolId);
+            TokenBucket tool = config == null ? null : toolBucket(config, now);
+            long wait = tool == null ? 0 : tool.tryAcquire(now);
+            if (wait > 0) {
+                nextPermitNanos = Math.min(nextPermitNanos, wait);
+                return false;
+            }
+            wait = global == null ? 0 : global.tryAcquire(now);
+            if (wait > 0) {
+                if (tool != null) {
+                    tool.release(now);
+                }
+                nextPermitNanos = Math.min(nextPermitNanos, wait);
+                exhausted = true;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean exhausted() {
+            return exhausted;
+        }
+
+        public boolean refused() {
+            return nextPermitNanos != Long.MAX_VALUE;
+        }
+
+        /**
+         * The {@link System#nanoTime()} at which a tool refused this cycle gets a permit again.
+         */
+        public long nextPermitAt() {
+            return now + nextPermitNanos;
+        }
+    }
+}
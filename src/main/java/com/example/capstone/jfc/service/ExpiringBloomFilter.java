@@ -0,0 +1,111 @@
+package com.example.capstone.jfc.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter that forgets: keys are added to the current generation, lookups check the
+ * current and the previous one, and every {@code windowMs} the previous generation is dropped.
+ * A key is therefore remembered for between one and two windows, in bounded memory. Reads and
+ * writes are lock-free; only the rotation synchronizes.
+ */
+public class ExpiringBloomFilter {
+
+    private final int bits;
+    private final int hashes;
+    private final long windowMs;
+
+    private volatile AtomicLongArray current;
+    private volatile AtomicLongArray previous;
+    private volatile long rotateAt;
+
+    /**
+     * @param expectedKeys      keys added per window
+     * @param falsePositiveRate chance that a key never added is reported as present, per generation
+     */
+    public ExpiringBloomFilter(long expectedKeys, double falsePositiveRate, long windowMs) {
+        long optimalBits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+        this.hashes = (int) Math.max(1, Math.round((double) bits / expectedKeys * Math.log(2)));
+        this.windowMs = windowMs;
+        this.current = new AtomicLongArray((bits + 63) / 64);
+        this.previous = new AtomicLongArray((bits + 63) / 64);
+        this.rotateAt = System.currentTimeMillis() + windowMs;
+    }
+
+    /**
+     * False means the key was not added within the last window; true means it probably was.
+     */
+    public boolean mightContain(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    public void put(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        AtomicLongArray generation = current;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long value = generation.get(word);
+            while ((value & mask) == 0 && !generation.compareAndSet(word, value, value | mask)) {
+                value = generation.get(word);
+            }
+        }
+    }
+
+    /**
+     * Bytes held by both generations.
+     */
+    public long sizeInBytes() {
+        return 2L * current.length() * Long.BYTES;
+    }
+
+    private boolean contains(AtomicLongArray generation, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashes; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bits;
+            if ((generation.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() >= rotateAt) {
+            rotate();
+        }
+    }
+
+    private synchronized void rotate() {
+        long now = System.currentTimeMillis();
+        if (now < rotateAt) {
+            return;
+        }
+        // After a long idle period both generations are stale
+        previous = now - rotateAt >= windowMs ? new AtomicLongArray(current.length()) : current;
+        current = new AtomicLongArray(previous.length());
+        rotateAt = now + windowMs;
+    }
+
+    // FNV-1a over the chars, finished with the murmur3 mixer so both halves are usable hashes
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
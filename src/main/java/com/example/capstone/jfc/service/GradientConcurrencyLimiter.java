@@ -0,0 +1,31 @@
+package com.example.capstone.jfc.service;
+
+/**
+ * Steers the limit by the ratio of the tool's baseline latency to its recent latency. While
+ * recent latency stays within {@code tolerance} times the baseline the limit grows by about its
+ * square root per completion; beyond that it shrinks in proportion to how far latency has risen,
+ * by at most half. {@code smoothing} is the share of each step that is applied, so single slow
+ * jobs do not swing the limit.
+ */
+public class GradientConcurrencyLimiter extends AdaptiveConcurrencyLimiter {
+
+    private final double tolerance;
+    private final double smoothing;
+
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, double failureRateThreshold,
+                                      double backoffRatio, double tolerance, double smoothing) {
+        super(initialLimit, minLimit, failureRateThreshold, backoffRatio);
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+    }
+
+    @Override
+    protected double adjust(ToolLimit tool, int inFlight) {
+        if (inFlight * 2 < tool.limit || tool.recentLatencyMs <= 0) {
+            return tool.limit;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * tool.baselineLatencyMs / tool.recentLatencyMs));
+        double target = tool.limit * gradient + Math.sqrt(tool.limit);
+        return tool.limit * (1 - smoothing) + target * smoothing;
+    }
+}
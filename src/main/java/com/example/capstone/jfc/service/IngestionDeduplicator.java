@@ -0,0 +1,182 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import com.example.capstone.jfc.store.JobStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Drops ingestion records for jobs JFC has already accepted, so Kafka redelivery or a
+ * retrying producer never enqueues the same job twice. Every accepted jobId goes into an
+ * {@link ExpiringBloomFilter}; a miss proves the job is new, and only the (rare) hits are
+ * confirmed against the {@link JobStore} in one batched lookup. Optionally, identical
+ * submissions under different jobIds (same tool, priority and payload) are dropped as well.
+ * <p>
+ * Jobs are only remembered once {@link #accepted} reports them stored, so a batch whose insert
+ * failed is not dropped as a duplicate of itself when Kafka redelivers it.
+ */
+@Component
+public class IngestionDeduplicator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IngestionDeduplicator.class);
+
+    private final JobStore jobStore;
+    private final JobBatchRepository jobBatchRepository;
+    private final JfcMetrics metrics;
+    private final ExpiringBloomFilter seenJobIds;
+    private final long windowMs;
+
+    // Content hash -> when it was first accepted, oldest first
+    private final LinkedHashMap<String, Long> seenContent = new LinkedHashMap<>();
+
+    @Value("${jfc.ingestion.dedup.warm-up}")
+    private boolean warmUp;
+
+    @Value("${jfc.ingestion.dedup.content}")
+    private boolean contentDedup;
+
+    @Value("${jfc.ingestion.dedup.content-cache-size}")
+    private int contentCacheSize;
+
+    public IngestionDeduplicator(JobStore jobStore, JobBatchRepository jobBatchRepository, JfcMetrics metrics,
+                                 @Value("${jfc.ingestion.dedup.expected-jobs}") long expectedJobs,
+                                 @Value("${jfc.ingestion.dedup.false-positive-rate}") double falsePositiveRate,
+                                 @Value("${jfc.ingestion.dedup.window-ms}") long windowMs) {
+        this.jobStore = jobStore;
+        this.jobBatchRepository = jobBatchRepository;
+        this.metrics = metrics;
+        this.seenJobIds = new ExpiringBloomFilter(expectedJobs, falsePositiveRate, windowMs);
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Seeds the filter with the jobs created within the last window, so a restart does not
+     * open a gap in which redelivered records look new.
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (!warmUp) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int[] loaded = {0};
+        jobBatchRepository.forEachJobIdCreatedSince(LocalDateTime.now().minusNanos(windowMs * 1_000_000), jobId -> {
+            seenJobIds.put(jobId);
+            loaded[0]++;
+        });
+        LOGGER.info("Dedup filter warmed up with {} job ids in {} ms ({} KiB)",
+                loaded[0], System.currentTimeMillis() - start, seenJobIds.sizeInBytes() / 1024);
+    }
+
+    /**
+     * The jobs of {@code jobs} that were not seen before, in their original order. Must be
+     * called before the payloads are offloaded, so content hashes cover the real payload.
+     */
+    public synchronized Filtered filter(List<JobEntity> jobs) {
+        List<JobEntity> fresh = new ArrayList<>(jobs.size());
+        List<String> contentHashes = new ArrayList<>(jobs.size());
+        Set<String> batchContent = new HashSet<>();
+        Set<String> batchIds = new HashSet<>();
+        List<String> candidates = new ArrayList<>();
+        int batchDuplicates = 0;
+        for (JobEntity job : jobs) {
+            if (!batchIds.add(job.getJobId())) {
+                batchDuplicates++;
+            } else if (seenJobIds.mightContain(job.getJobId())) {
+                candidates.add(job.getJobId());
+            }
+        }
+
+        // Only filter hits pay for a lookup; it covers the archive, so a false positive never drops a new job
+        Set<String> existing = candidates.isEmpty() ? Set.of() : jobStore.findExistingIds(candidates);
+
+        long now = System.currentTimeMillis();
+        expireContent(now);
+        int contentDuplicates = 0;
+        batchIds.clear();
+        for (JobEntity job : jobs) {
+            if (!batchIds.add(job.getJobId()) || existing.contains(job.getJobId())) {
+                continue;
+            }
+            String hash = contentDedup ? contentHash(job) : null;
+            if (hash != null && (seenContent.containsKey(hash) || !batchContent.add(hash))) {
+                contentDuplicates++;
+                continue;
+            }
+            fresh.add(job);
+            contentHashes.add(hash);
+        }
+
+        record("batch", batchDuplicates);
+        record("known", existing.size());
+        record("content", contentDuplicates);
+        if (fresh.size() < jobs.size()) {
+            LOGGER.debug("Dropped {} duplicate ingestion records ({} in batch, {} known, {} same content)",
+                    jobs.size() - fresh.size(), batchDuplicates, existing.size(), contentDuplicates);
+        }
+        return new Filtered(fresh, contentHashes);
+    }
+
+    /**
+     * Remembers the jobs of {@code filtered} once the store has committed them.
+     */
+    public synchronized void accepted(Filtered filtered) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < filtered.jobs().size(); i++) {
+            seenJobIds.put(filtered.jobs().get(i).getJobId());
+            String hash = filtered.contentHashes().get(i);
+            if (hash != null) {
+                seenContent.putIfAbsent(hash, now);
+            }
+        }
+        while (seenContent.size() > contentCacheSize) {
+            seenContent.pollFirstEntry();
+        }
+    }
+
+    /**
+     * Jobs that passed {@link #filter}, with the content hash of each (null when content
+     * deduplication is off), to be handed to {@link #accepted} after they are stored.
+     */
+    public record Filtered(List<JobEntity> jobs, List<String> contentHashes) {
+    }
+
+    private void expireContent(long now) {
+        Iterator<Long> acceptedAt = seenContent.values().iterator();
+        while (acceptedAt.hasNext() && acceptedAt.next() <= now - windowMs) {
+            acceptedAt.remove();
+        }
+    }
+
+    private void record(String reason, int count) {
+        if (count > 0) {
+            metrics.recordDuplicates(reason, count);
+        }
+    }
+
+    private static String contentHash(JobEntity job) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(job.getToolId().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(job.getPriority()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (job.getPayload() != null) {
+                digest.update(job.getPayload().getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JFC's own meters, exported on {@code /actuator/prometheus} next to the Kafka client metrics
+ * (which include consumer lag). Meters are looked up once and cached, so recording on the hot
+ * paths costs a map lookup plus the histogram update.
+ * <ul>
+ *     <li>{@code jfc.jobs.depth{tool,status}}: NEW and IN_PROGRESS jobs per tool, from the dispatch index</li>
+ *     <li>{@code jfc.tool.concurrency.limit{tool}}: the tool's configured {@code maxConcurrentJobs}</li>
+ *     <li>{@code jfc.tool.concurrency.effective.limit{tool}}: the limit the {@link ConcurrencyLimiter} dispatches
+ *     against</li>
+ *     <li>{@code jfc.job.time.in.state{tool,state}}: time spent NEW before dispatch, and IN_PROGRESS before
+ *     a final status</li>
+ *     <li>{@code jfc.dispatch.cycle}: duration of dispatch cycles that handed out work</li>
+ *     <li>{@code jfc.consumer.batch.size{consumer}} and {@code jfc.consumer.record.lag{consumer}}</li>
+ *     <li>{@code jfc.ingestion.duplicates{reason}}: ingestion records dropped by the {@link IngestionDeduplicator}</li>
+ * </ul>
+ */
+@Component
+public class JfcMetrics {
+
+    private final MeterRegistry registry;
+    private final DispatchIndex dispatchIndex;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    private final Timer dispatchCycle;
+    private final Map<String, Timer> timeInState = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> batchSizes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> recordLag = new ConcurrentHashMap<>();
+    private final Map<String, Counter> duplicates = new ConcurrentHashMap<>();
+    private final Set<String> gaugedTools = ConcurrentHashMap.newKeySet();
+
+    public JfcMetrics(MeterRegistry registry, DispatchIndex dispatchIndex, ToolConfigRegistry toolConfigRegistry,
+                      ConcurrencyLimiter concurrencyLimiter) {
+        this.registry = registry;
+        this.dispatchIndex = dispatchIndex;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.concurrencyLimiter = concurrencyLimiter;
+
+        this.dispatchCycle = Timer.builder("jfc.dispatch.cycle")
+                .description("Duration of dispatch cycles that handed out at least one job")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("jfc.jobs.in.flight", dispatchIndex, DispatchIndex::globalInFlight)
+                .description("IN_PROGRESS jobs across all tools owned by this instance")
+                .register(registry);
+
+        toolConfigRegistry.all().keySet().forEach(this::registerToolGauges);
+    }
+
+    @EventListener
+    public void onToolConfigChanged(ToolConfigChangedEvent event) {
+        event.current().keySet().forEach(this::registerToolGauges);
+    }
+
+    public void recordDispatchCycle(long nanos) {
+        dispatchCycle.record(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * Records how long a job spent in {@code state} before leaving it.
+     */
+    public void recordTimeInState(String toolId, JobStatus state, long millis) {
+        timeInState.computeIfAbsent(toolId + '|' + state, key -> Timer.builder("jfc.job.time.in.state")
+                        .description("Time a job spent in a state before moving on")
+                        .tag("tool", String.valueOf(toolId))
+                        .tag("state", state.name())
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(Duration.ofMillis(Math.max(0, millis)));
+    }
+
+    public void recordBatch(String consumer, int size, long maxLagMillis) {
+        batchSizes.computeIfAbsent(consumer, key -> DistributionSummary.builder("jfc.consumer.batch.size")
+                        .description("Records per listener batch")
+                        .tag("consumer", consumer)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(size);
+        recordLag.computeIfAbsent(consumer, key -> Timer.builder("jfc.consumer.record.lag")
+                        .description("Age of the oldest record in a batch when it is processed")
+                        .tag("consumer", consumer)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(Duration.ofMillis(Math.max(0, maxLagMillis)));
+    }
+
+    public void recordDuplicates(String reason, int count) {
+        duplicates.computeIfAbsent(reason, key -> Counter.builder("jfc.ingestion.duplicates")
+                        .description("Ingestion records dropped as duplicates of an accepted job")
+                        .tag("reason", reason)
+                        .register(registry))
+                .increment(count);
+    }
+
+    private void registerToolGauges(String toolId) {
+        if (!gaugedTools.add(toolId)) {
+            return;
+        }
+        Gauge.builder("jfc.jobs.depth", dispatchIndex, index -> index.queued(toolId))
+                .tag("tool", toolId).tag("status", JobStatus.NEW.name())
+                .register(registry);
+        Gauge.builder("jfc.jobs.depth", dispatchIndex, index -> index.inFlight(toolId))
+                .tag("tool", toolId).tag("status", JobStatus.IN_PROGRESS.name())
+                .register(registry);
+        Gauge.builder("jfc.tool.concurrency.limit", toolConfigRegistry, tools -> {
+                    var config = tools.get(toolId);
+                    return config == null || config.getMaxConcurrentJobs() == null ? 0 : config.getMaxConcurrentJobs();
+                })
+                .tag("tool", toolId)
+                .register(registry);
+        Gauge.builder("jfc.tool.concurrency.effective.limit", toolConfigRegistry, tools -> {
+                    var config = tools.get(toolId);
+                    return config == null || config.getMaxConcurrentJobs() == null ? 0
+                            : concurrencyLimiter.limit(toolId, config.getMaxConcurrentJobs());
+                })
+                .tag("tool", toolId)
+                .register(registry);
+    }
+}
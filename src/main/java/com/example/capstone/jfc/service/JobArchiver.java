@@ -0,0 +1,173 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.repository.JobArchiveRepository;
+import com.example.capstone.jfc.repository.JobPayloadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps {@code jobs} proportional to live work. Jobs that have been SUCCESS or FAIL for longer
+ * than {@code jfc.archive.hot-retention-ms} are moved to {@code jobs_archive} in batches, and
+ * archived jobs are deleted after {@code jfc.archive.retention-days}. With
+ * {@code jfc.archive.partitioning=monthly} the archive is range-partitioned by completion month,
+ * so expiry drops whole partitions instead of deleting rows. Offloaded payloads that no job
+ * references any more are deleted with them.
+ * <p>
+ * In cluster mode each instance archives the jobs of the tools it owns.
+ */
+@Component
+public class JobArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobArchiver.class);
+
+    // A pass moves at most this many batches, so one run cannot hog the scheduler thread
+    private static final int MAX_BATCHES_PER_RUN = 100;
+
+    private final JobArchiveRepository jobArchiveRepository;
+    private final JobPayloadRepository jobPayloadRepository;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final ClusterOwnership clusterOwnership;
+
+    @Value("${jfc.archive.enabled}")
+    private boolean enabled;
+
+    @Value("${jfc.archive.hot-retention-ms}")
+    private long hotRetentionMs;
+
+    @Value("${jfc.archive.retention-days}")
+    private int retentionDays;
+
+    @Value("${jfc.archive.batch-size}")
+    private int batchSize;
+
+    @Value("${jfc.archive.partitioning}")
+    private String partitioning;
+
+    @Value("${jfc.archive.partitions-ahead}")
+    private int partitionsAhead;
+
+    public JobArchiver(JobArchiveRepository jobArchiveRepository,
+                       JobPayloadRepository jobPayloadRepository,
+                       ToolConfigRegistry toolConfigRegistry,
+                       ClusterOwnership clusterOwnership) {
+        this.jobArchiveRepository = jobArchiveRepository;
+        this.jobPayloadRepository = jobPayloadRepository;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.clusterOwnership = clusterOwnership;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled && isPartitioned()) {
+            maintainPartitions();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jfc.archive.interval-ms}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<String> owned = toolConfigRegistry.all().keySet().stream().filter(clusterOwnership::owns).toList();
+            LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(hotRetentionMs));
+            int size = Math.min(batchSize, 1000);
+
+            int archived = 0;
+            for (int batch = 0; batch < MAX_BATCHES_PER_RUN; batch++) {
+                int moved = jobArchiveRepository.archiveBatch(owned, cutoff, size);
+                archived += moved;
+                if (moved < size) {
+                    break;
+                }
+            }
+            if (archived > 0) {
+                LOGGER.info("Archived {} finished jobs", archived);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error archiving finished jobs", e);
+        }
+    }
+
+    @Scheduled(cron = "${jfc.archive.purge-cron}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (isPartitioned()) {
+                maintainPartitions();
+            }
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = jobArchiveRepository.purgeBatch(cutoff, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize);
+            LOGGER.info("Purged {} archived jobs completed before {}", purged, cutoff);
+
+            // Payloads stored since the cutoff are kept, so one still being ingested is never lost
+            int payloads = 0;
+            do {
+                deleted = jobPayloadRepository.purgeUnreferenced(cutoff, batchSize);
+                payloads += deleted;
+            } while (deleted == batchSize);
+            LOGGER.info("Purged {} unreferenced payloads stored before {}", payloads, cutoff);
+        } catch (Exception e) {
+            LOGGER.error("Error purging archived jobs", e);
+        }
+    }
+
+    /**
+     * Partitions the archive on first use, keeps {@code partitions-ahead} future months split
+     * off the catch-all partition, and drops months that are entirely past retention.
+     */
+    private void maintainPartitions() {
+        try {
+            YearMonth current = YearMonth.now();
+            YearMonth oldestKept = YearMonth.from(LocalDateTime.now().minusDays(retentionDays));
+            List<String> existing = jobArchiveRepository.partitionNames();
+            if (existing.isEmpty()) {
+                jobArchiveRepository.partitionByMonth(oldestKept, current.plusMonths(partitionsAhead));
+                LOGGER.info("Partitioned jobs_archive by month from {} to {}", oldestKept, current.plusMonths(partitionsAhead));
+                return;
+            }
+
+            for (YearMonth month = current; !month.isAfter(current.plusMonths(partitionsAhead)); month = month.plusMonths(1)) {
+                if (!existing.contains(JobArchiveRepository.partitionName(month))) {
+                    jobArchiveRepository.addMonthPartition(month);
+                }
+            }
+            // Names sort chronologically; a month older than the oldest kept one holds only expired rows
+            String oldestKeptName = JobArchiveRepository.partitionName(oldestKept);
+            for (String name : existing) {
+                if (!name.equals("pmax") && name.compareTo(oldestKeptName) < 0) {
+                    jobArchiveRepository.dropPartition(name);
+                    LOGGER.info("Dropped expired archive partition {}", name);
+                }
+            }
+        } catch (Exception e) {
+            // Another instance may be doing the same maintenance; the next run retries
+            LOGGER.warn("Archive partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isPartitioned() {
+        return switch (partitioning) {
+            case "monthly" -> true;
+            case "none" -> false;
+            default -> throw new IllegalArgumentException("Unknown jfc.archive.partitioning: " + partitioning);
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobDelta;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.model.ToolCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory feed of job state changes for dashboards, so they never have to poll the database.
+ * Changes are buffered and pushed to Server-Sent Events subscribers every
+ * {@code jfc.stream.flush-ms} as one {@code jobs} event, followed by a {@code counters} event
+ * with per-tool totals. If the buffer overflows between flushes the oldest changes are dropped
+ * and the next {@code jobs} event says how many, so a client knows to re-read a snapshot.
+ * <p>
+ * {@link #version()} moves on every change and, with {@link #bootId()}, backs the ETags of the
+ * snapshot endpoints.
+ */
+@Component
+public class JobEventHub {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobEventHub.class);
+
+    private final DispatchIndex dispatchIndex;
+    private final ToolConfigRegistry toolConfigRegistry;
+
+    // The version restarts from zero with the process, so ETags also name the boot they came from
+    private final String bootId = UUID.randomUUID().toString();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, LongAdder> succeeded = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failed = new ConcurrentHashMap<>();
+
+    private final Queue<JobDelta> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSize = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    @Value("${jfc.stream.max-buffered}")
+    private int maxBuffered;
+
+    @Value("${jfc.stream.timeout-ms}")
+    private long emitterTimeoutMs;
+
+    public JobEventHub(DispatchIndex dispatchIndex, ToolConfigRegistry toolConfigRegistry) {
+        this.dispatchIndex = dispatchIndex;
+        this.toolConfigRegistry = toolConfigRegistry;
+    }
+
+    public void publish(String jobId, String toolId, JobStatus status) {
+        version.incrementAndGet();
+        if (status == JobStatus.SUCCESS) {
+            succeeded.computeIfAbsent(String.valueOf(toolId), t -> new LongAdder()).increment();
+        } else if (status == JobStatus.FAIL) {
+            failed.computeIfAbsent(String.valueOf(toolId), t -> new LongAdder()).increment();
+        }
+
+        if (emitters.isEmpty()) {
+            return;
+        }
+        pending.add(new JobDelta(jobId, toolId, status, System.currentTimeMillis()));
+        if (pendingSize.incrementAndGet() > maxBuffered && pending.poll() != null) {
+            pendingSize.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Differs on every start of this instance.
+     */
+    public String bootId() {
+        return bootId;
+    }
+
+    public List<ToolCounters> counters() {
+        Set<String> toolIds = new TreeSet<>(toolConfigRegistry.all().keySet());
+        toolIds.addAll(succeeded.keySet());
+        toolIds.addAll(failed.keySet());
+
+        List<ToolCounters> counters = new ArrayList<>(toolIds.size());
+        for (String toolId : toolIds) {
+            ToolConfigEntity config = toolConfigRegistry.get(toolId);
+            counters.add(new ToolCounters(toolId,
+                    dispatchIndex.queued(toolId),
+                    dispatchIndex.inFlight(toolId),
+                    config == null || config.getMaxConcurrentJobs() == null ? 0 : config.getMaxConcurrentJobs(),
+                    sum(succeeded.get(toolId)),
+                    sum(failed.get(toolId))));
+        }
+        return counters;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+        try {
+            emitter.send(SseEmitter.event().name("counters").data(counters()));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+        }
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${jfc.stream.flush-ms}")
+    public void flush() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+
+        List<JobDelta> deltas = new ArrayList<>();
+        JobDelta delta;
+        while ((delta = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            deltas.add(delta);
+        }
+        Map<String, Object> jobsEvent = Map.of("deltas", deltas, "dropped", dropped.getAndSet(0));
+        List<ToolCounters> counters = counters();
+
+        for (SseEmitter emitter : emitters) {
+            try {
+                if (!deltas.isEmpty()) {
+                    emitter.send(SseEmitter.event().name("jobs").data(jobsEvent));
+                }
+                emitter.send(SseEmitter.event().name("counters").data(counters));
+            } catch (IOException | IllegalStateException e) {
+                LOGGER.debug("Dropping SSE subscriber: {}", e.getMessage());
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private static long sum(LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+}
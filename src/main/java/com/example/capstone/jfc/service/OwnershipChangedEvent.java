@@ -0,0 +1,9 @@
+package com.example.capstone.jfc.service;
+
+import java.util.Set;
+
+/**
+ * Published by {@link ClusterOwnership} when this instance gains or loses ingestion partitions.
+ */
+public record OwnershipChangedEvent(Set<Integer> ownedPartitions, int partitionCount) {
+}
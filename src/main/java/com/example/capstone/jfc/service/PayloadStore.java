@@ -0,0 +1,107 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.repository.JobPayloadRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Keeps large payloads out of the {@code jobs} rows. A payload of at least
+ * {@code jfc.payloads.inline-max-bytes} is stored once in {@code job_payloads} under its SHA-256
+ * and the job only carries that hash, so the rows the dispatcher and the dashboards scan stay
+ * narrow and identical payloads are stored once. Offloaded payloads are read back only for the
+ * jobs actually being dispatched, through a small LRU cache.
+ */
+@Component
+public class PayloadStore {
+
+    private final JobPayloadRepository jobPayloadRepository;
+
+    @Value("${jfc.payloads.inline-max-bytes}")
+    private int inlineMaxBytes;
+
+    private final Map<String, String> cache;
+
+    public PayloadStore(JobPayloadRepository jobPayloadRepository,
+                        @Value("${jfc.payloads.cache-size}") int cacheSize) {
+        this.jobPayloadRepository = jobPayloadRepository;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Moves the large payloads of not-yet-inserted jobs to the payload store, replacing them
+     * with a reference. Must run before the jobs are inserted, so no row ever points at a
+     * payload that is not there.
+     */
+    public void offload(List<JobEntity> jobs) {
+        Map<String, String> offloaded = new HashMap<>();
+        for (JobEntity job : jobs) {
+            String payload = job.getPayload();
+            // A char is at most 3 UTF-8 bytes, so most small payloads are decided without encoding them
+            if (payload == null || payload.length() * 3L < inlineMaxBytes) {
+                continue;
+            }
+            byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < inlineMaxBytes) {
+                continue;
+            }
+            String hash = sha256(bytes);
+            offloaded.putIfAbsent(hash, payload);
+            job.setPayloadRef(hash);
+            job.setPayload(null);
+        }
+        jobPayloadRepository.insertIfAbsent(offloaded);
+    }
+
+    /**
+     * The payloads of the given jobs by jobId, fetching offloaded ones in one query. A job whose
+     * offloaded payload cannot be found is missing from the result.
+     */
+    public Map<String, String> payloads(Collection<JobEntity> jobs) {
+        Map<String, String> payloads = new HashMap<>();
+        Map<String, List<String>> jobIdsByRef = new HashMap<>();
+        for (JobEntity job : jobs) {
+            String ref = job.getPayloadRef();
+            if (ref == null) {
+                payloads.put(job.getJobId(), job.getPayload());
+                continue;
+            }
+            String cached = cache.get(ref);
+            if (cached != null) {
+                payloads.put(job.getJobId(), cached);
+            } else {
+                jobIdsByRef.computeIfAbsent(ref, r -> new ArrayList<>()).add(job.getJobId());
+            }
+        }
+
+        if (!jobIdsByRef.isEmpty()) {
+            jobPayloadRepository.findByHashes(jobIdsByRef.keySet()).forEach((ref, content) -> {
+                cache.put(ref, content);
+                jobIdsByRef.get(ref).forEach(jobId -> payloads.put(jobId, content));
+            });
+        }
+        return payloads;
+    }
+
+    public Optional<String> payload(JobEntity job) {
+        return Optional.ofNullable(payloads(List.of(job)).get(job.getJobId()));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How a tool's failed jobs are retried: up to {@code maxAttempts} times, waiting an exponentially
+ * growing backoff with jitter between attempts.
+ */
+public record RetryPolicy(int maxAttempts, long backoffMs, long maxBackoffMs, double multiplier) {
+
+    /**
+     * The tool's own settings, with {@code defaults} filling in whatever it leaves null.
+     */
+    public static RetryPolicy of(ToolConfigEntity config, RetryPolicy defaults) {
+        if (config == null) {
+            return defaults;
+        }
+        return new RetryPolicy(
+                config.getRetryMaxAttempts() == null ? defaults.maxAttempts() : config.getRetryMaxAttempts(),
+                config.getRetryBackoffMs() == null ? defaults.backoffMs() : config.getRetryBackoffMs(),
+                config.getRetryMaxBackoffMs() == null ? defaults.maxBackoffMs() : config.getRetryMaxBackoffMs(),
+                config.getRetryBackoffMultiplier() == null ? defaults.multiplier() : config.getRetryBackoffMultiplier());
+    }
+
+    /**
+     * Delay before retry number {@code attempt + 1}. "Equal jitter": half of the exponential
+     * backoff is fixed and half random, so jobs that failed together come back spread out
+     * instead of as a herd, but never sooner than half the backoff.
+     */
+    public long delayMs(int attempt) {
+        double exponential = backoffMs * Math.pow(Math.max(1.0, multiplier), attempt);
+        long backoff = (long) Math.min(maxBackoffMs, exponential);
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(backoff - half + 1);
+    }
+}
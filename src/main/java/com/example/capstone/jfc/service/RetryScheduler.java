@@ -0,0 +1,266 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.DeadLetterMessage;
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.RetryWait;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.repository.JobRepository;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import com.example.capstone.jfc.store.JobStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Turns FAIL reports into retries. A failed job with attempts left under its tool's
+ * {@link RetryPolicy} goes to RETRY_WAIT with its attempt count and next attempt time, and is
+ * held in a {@link TimerWheel} until it is due, then put back to NEW and into the dispatch
+ * index. Nothing polls the database for due retries; the timers are re-armed from RETRY_WAIT
+ * rows on startup and when this instance takes over tools. A job out of attempts stays FAIL
+ * and, if its tool allows retries at all, is published to the dead-letter topic.
+ */
+@Component
+public class RetryScheduler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryScheduler.class);
+
+    private final JobRepository jobRepository;
+    private final JobStore jobStore;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final DispatchIndex dispatchIndex;
+    private final ClusterOwnership clusterOwnership;
+    private final BatchDispatcher batchDispatcher;
+    private final PayloadStore payloadStore;
+    private final JobEventHub jobEventHub;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final TimerWheel<QueuedJob> timers;
+    // Jobs with an armed timer, so re-arming after an ownership change does not double them up
+    private final Set<String> armed = ConcurrentHashMap.newKeySet();
+    private final RetryPolicy defaults;
+
+    @Value("${jfc.topics.dead-letter}")
+    private String deadLetterTopic;
+
+    @Value("${jfc.jobs.page-size}")
+    private int pageSize;
+
+    @Value("${jfc.retry.release-backoff-ms}")
+    private long releaseBackoffMs;
+
+    public RetryScheduler(JobRepository jobRepository,
+                          JobStore jobStore,
+                          ToolConfigRegistry toolConfigRegistry,
+                          DispatchIndex dispatchIndex,
+                          ClusterOwnership clusterOwnership,
+                          BatchDispatcher batchDispatcher,
+                          PayloadStore payloadStore,
+                          JobEventHub jobEventHub,
+                          KafkaTemplate<String, Object> kafkaTemplate,
+                          @Value("${jfc.retry.max-attempts}") int maxAttempts,
+                          @Value("${jfc.retry.backoff-ms}") long backoffMs,
+                          @Value("${jfc.retry.max-backoff-ms}") long maxBackoffMs,
+                          @Value("${jfc.retry.backoff-multiplier}") double multiplier,
+                          @Value("${jfc.retry.tick-ms}") long tickMs,
+                          @Value("${jfc.retry.wheel-size}") int wheelSize) {
+        this.jobRepository = jobRepository;
+        this.jobStore = jobStore;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.dispatchIndex = dispatchIndex;
+        this.clusterOwnership = clusterOwnership;
+        this.batchDispatcher = batchDispatcher;
+        this.payloadStore = payloadStore;
+        this.jobEventHub = jobEventHub;
+        this.kafkaTemplate = kafkaTemplate;
+        this.defaults = new RetryPolicy(maxAttempts, backoffMs, maxBackoffMs, multiplier);
+        this.timers = new TimerWheel<>("jfc-retry-timers", tickMs, wheelSize, this::onDue);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        timers.start();
+        rearm();
+    }
+
+    @EventListener(OwnershipChangedEvent.class)
+    public void onOwnershipChanged() {
+        rearm();
+    }
+
+    @PreDestroy
+    public void stop() {
+        timers.stop();
+    }
+
+    /**
+     * The retry policy currently in force for {@code toolId}.
+     */
+    public RetryPolicy policy(String toolId) {
+        return RetryPolicy.of(toolConfigRegistry.get(toolId), defaults);
+    }
+
+    /**
+     * Decides what happens to jobs a tool reported as FAIL. A report from an earlier dispatch
+     * than the job's current one neither burns a retry nor dead-letters the job.
+     *
+     * @param failed the reported dispatch epoch by jobId
+     * @return the status each job now has: RETRY_WAIT (already written) or FAIL (still to be
+     * written by the caller). Stale reports and jobs that are neither NEW nor IN_PROGRESS any
+     * more, e.g. a redelivered FAIL for a job already waiting to retry, are left out.
+     */
+    public Map<String, JobStatus> onFailures(Map<String, Integer> failed) {
+        Map<String, JobStatus> outcome = new HashMap<>();
+        List<JobEntity> retries = new ArrayList<>();
+        List<JobEntity> exhausted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, JobEntity> known = new HashMap<>();
+        jobStore.findRetryState(failed.keySet()).forEach(job -> known.put(job.getJobId(), job));
+        failed.forEach((jobId, epoch) -> {
+            JobEntity job = known.get(jobId);
+            if (job == null) {
+                outcome.put(jobId, JobStatus.FAIL); // unknown; the caller reports it
+                return;
+            }
+            boolean running = job.getStatus() == JobStatus.NEW || job.getStatus() == JobStatus.IN_PROGRESS;
+            if (!running || !StatusUpdate.isCurrent(epoch, job.getStatus(), job.getDispatchEpoch())) {
+                return;
+            }
+            job.setDispatchEpoch(epoch);
+            RetryPolicy policy = policy(job.getToolId());
+            if (job.getAttempts() < policy.maxAttempts()) {
+                job.setNextAttemptAt(now.plus(Duration.ofMillis(policy.delayMs(job.getAttempts()))));
+                job.setAttempts(job.getAttempts() + 1);
+                retries.add(job);
+            } else {
+                // With retries off FAIL is simply final; only jobs that used up their retries are dead letters
+                if (policy.maxAttempts() > 0) {
+                    exhausted.add(job);
+                }
+                outcome.put(jobId, JobStatus.FAIL);
+            }
+        });
+
+        Set<String> scheduled = new HashSet<>(jobStore.scheduleRetries(retries));
+        for (JobEntity job : retries) {
+            if (scheduled.contains(job.getJobId())) {
+                outcome.put(job.getJobId(), JobStatus.RETRY_WAIT);
+                arm(QueuedJob.of(job), job.getNextAttemptAt());
+            }
+        }
+        if (!retries.isEmpty()) {
+            LOGGER.debug("Scheduled {} retries", scheduled.size());
+        }
+
+        deadLetter(exhausted);
+        return outcome;
+    }
+
+    /**
+     * Retries waiting on a timer.
+     */
+    public int pending() {
+        return timers.size();
+    }
+
+    private void arm(QueuedJob job, LocalDateTime due) {
+        if (armed.add(job.jobId())) {
+            long delayMs = due == null ? 0
+                    : due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - System.currentTimeMillis();
+            timers.schedule(job, delayMs);
+        }
+    }
+
+    private void rearm() {
+        int rearmed = 0;
+        String after = "";
+        List<RetryWait> page = jobRepository.findRetryWaitingAfter(after, Limit.of(pageSize));
+        while (!page.isEmpty()) {
+            for (RetryWait wait : page) {
+                if (clusterOwnership.owns(wait.toolId()) && !armed.contains(wait.jobId())) {
+                    arm(new QueuedJob(wait.jobId(), wait.toolId(),
+                            wait.priority() == null ? 0 : wait.priority(),
+                            wait.timestampCreated() == null ? LocalDateTime.MIN : wait.timestampCreated()),
+                            wait.nextAttemptAt());
+                    rearmed++;
+                }
+            }
+            after = page.get(page.size() - 1).jobId();
+            page = jobRepository.findRetryWaitingAfter(after, Limit.of(pageSize));
+        }
+        if (rearmed > 0) {
+            LOGGER.info("Re-armed {} retry timers", rearmed);
+        }
+    }
+
+    // Runs on the timer wheel thread with every job due in this tick
+    private void onDue(List<QueuedJob> due) {
+        Lock cycleLock = clusterOwnership.cycleLock().readLock();
+        cycleLock.lock();
+        try {
+            List<QueuedJob> owned = new ArrayList<>(due.size());
+            for (QueuedJob job : due) {
+                armed.remove(job.jobId());
+                if (clusterOwnership.owns(job.toolId())) {
+                    owned.add(job);
+                }
+            }
+            jobStore.transitionStatus(owned.stream().map(QueuedJob::jobId).toList(),
+                    JobStatus.RETRY_WAIT, JobStatus.NEW);
+            // A job that did not make the transition is dropped by the dispatcher when it finds it is not NEW
+            for (QueuedJob job : owned) {
+                dispatchIndex.enqueue(job);
+                jobEventHub.publish(job.jobId(), job.toolId(), JobStatus.NEW);
+            }
+            batchDispatcher.wakeUp();
+        } catch (Exception e) {
+            // The jobs are still RETRY_WAIT; ownership is checked again when they fire
+            LOGGER.error("Error releasing {} due retries, trying again in {} ms", due.size(), releaseBackoffMs, e);
+            for (QueuedJob job : due) {
+                if (armed.add(job.jobId())) {
+                    timers.schedule(job, releaseBackoffMs);
+                }
+            }
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    private void deadLetter(List<JobEntity> exhausted) {
+        if (exhausted.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> attempts = new HashMap<>();
+        exhausted.forEach(job -> attempts.put(job.getJobId(), job.getAttempts()));
+        List<JobEntity> jobs = jobStore.findJobs(attempts.keySet());
+        Map<String, String> payloads = payloadStore.payloads(jobs);
+        long now = System.currentTimeMillis();
+        for (JobEntity job : jobs) {
+            DeadLetterMessage message = new DeadLetterMessage(job.getJobId(), job.getToolId(),
+                    payloads.get(job.getJobId()), job.getPriority() == null ? 0 : job.getPriority(),
+                    attempts.get(job.getJobId()), "FAIL after " + attempts.get(job.getJobId()) + " retries", now);
+            kafkaTemplate.send(deadLetterTopic, job.getJobId(), message).whenComplete((result, e) -> {
+                if (e != null) {
+                    // The job is FAIL in the database either way; this log line is all that is left of the letter
+                    LOGGER.error("Could not dead-letter job {} of tool {} after {} retries",
+                            message.jobId(), message.toolId(), message.attempts(), e);
+                }
+            });
+        }
+        LOGGER.warn("Dead-lettered {} jobs that ran out of retries", jobs.size());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Decides the order in which {@link DispatchIndex} hands out work. The index keeps one
+ * ready queue per tool sorted by {@link #jobOrder()}, and in each cycle repeatedly serves
+ * the tool that sorts first under {@link #compareTools}. Tools without spare capacity are
+ * never offered to the policy.
+ */
+public interface SchedulingPolicy {
+
+    /**
+     * Order of jobs inside one tool's ready queue. It must not depend on the current time,
+     * because the queues are sorted once on insertion.
+     */
+    Comparator<QueuedJob> jobOrder();
+
+    /**
+     * Called at the start of a dispatch cycle with the tools that have work and capacity.
+     */
+    default void beginCycle(Collection<String> toolIds) {
+    }
+
+    /**
+     * Which of two tools to serve first, given the job at the head of each one's queue.
+     * Only the tool just served changes state between calls within a cycle.
+     */
+    default int compareTools(String toolA, QueuedJob headA, String toolB, QueuedJob headB) {
+        return jobOrder().compare(headA, headB);
+    }
+
+    /**
+     * Called for every job the index hands out.
+     */
+    default void onDispatched(QueuedJob job) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import com.example.capstone.jfc.store.JobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Time-bounds the concurrency slots held by dispatched jobs. Every in-flight job holds a lease
+ * in {@link DispatchIndex}; tools renew it by sending {@code HEARTBEAT} on the status topic, and
+ * {@link #reap()} hands back the slots of jobs whose tool went silent, so a crashed tool cannot
+ * pin capacity forever. Lease deadlines are checkpointed to {@code jobs.lease_expires_at} so a
+ * restarted instance picks up where it left off.
+ */
+@Component
+public class SlotLeaseManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlotLeaseManager.class);
+
+    private final DispatchIndex dispatchIndex;
+    private final JobStore jobStore;
+    private final ClusterOwnership clusterOwnership;
+    private final JobEventHub jobEventHub;
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${jfc.leases.duration-ms}")
+    private long leaseDurationMs;
+
+    // NEW to retry the job on another slot, FAIL to give up on it
+    @Value("${jfc.leases.expired-status}")
+    private JobStatus expiredStatus;
+
+    public SlotLeaseManager(DispatchIndex dispatchIndex,
+                            JobStore jobStore,
+                            ClusterOwnership clusterOwnership,
+                            JobEventHub jobEventHub,
+                            ConcurrencyLimiter concurrencyLimiter) {
+        this.dispatchIndex = dispatchIndex;
+        this.jobStore = jobStore;
+        this.clusterOwnership = clusterOwnership;
+        this.jobEventHub = jobEventHub;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    /**
+     * Renews the leases of the given jobs and checkpoints the new deadline. Unknown jobs, and
+     * heartbeats from a dispatch other than the one in flight, are ignored.
+     *
+     * @param dispatchEpochs the dispatch epoch each heartbeat carried, by jobId
+     */
+    public void renew(Map<String, Integer> dispatchEpochs) {
+        long deadline = System.currentTimeMillis() + leaseDurationMs;
+        List<String> renewed = new ArrayList<>(dispatchEpochs.size());
+        dispatchEpochs.forEach((jobId, dispatchEpoch) -> {
+            if (dispatchIndex.renewLease(jobId, dispatchEpoch, deadline)) {
+                renewed.add(jobId);
+            }
+        });
+        if (!renewed.isEmpty()) {
+            jobStore.extendLeases(renewed, newLeaseExpiry());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jfc.leases.reap-interval-ms}")
+    public void reap() {
+        Lock cycleLock = clusterOwnership.cycleLock().readLock();
+        cycleLock.lock();
+        try {
+            List<QueuedJob> expired = dispatchIndex.expireLeases(System.currentTimeMillis());
+            if (expired.isEmpty()) {
+                return;
+            }
+
+            // A silent tool is a sign of overload; one cut per tool however many of its leases expired
+            expired.stream().map(QueuedJob::toolId).distinct().forEach(concurrencyLimiter::onDropped);
+
+            int reclaimed = 0;
+            for (QueuedJob job : expired) {
+                // One row at a time: only a job that is still IN_PROGRESS may go back to the queue
+                int updated = jobStore.transitionStatus(List.of(job.jobId()),
+                        JobStatus.IN_PROGRESS, expiredStatus);
+                if (updated == 1) {
+                    reclaimed++;
+                    jobEventHub.publish(job.jobId(), job.toolId(), expiredStatus);
+                    if (expiredStatus == JobStatus.NEW) {
+                        dispatchIndex.enqueue(job);
+                    }
+                }
+            }
+
+            // The dispatcher's safety sweep picks up the freed slots; expiry is rare enough not to need a wake-up
+            LOGGER.warn("Expired {} slot leases; {} jobs moved to {}", expired.size(), reclaimed, expiredStatus);
+        } catch (Exception e) {
+            LOGGER.error("Error reaping expired slot leases", e);
+        } finally {
+            cycleLock.unlock();
+        }
+    }
+
+    /**
+     * Deadline for slots claimed now, as epoch millis.
+     */
+    public long newLeaseDeadline() {
+        return System.currentTimeMillis() + leaseDurationMs;
+    }
+
+    public LocalDateTime newLeaseExpiry() {
+        return LocalDateTime.now().plus(Duration.ofMillis(leaseDurationMs));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.capstone.jfc.service;
+
+/**
+ * Dispatches every tool up to its configured {@code maxConcurrentJobs}.
+ */
+public class StaticConcurrencyLimiter implements ConcurrencyLimiter {
+
+    @Override
+    public int limit(String toolId, int ceiling) {
+        return ceiling;
+    }
+}
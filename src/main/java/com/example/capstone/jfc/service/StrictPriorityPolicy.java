@@ -0,0 +1,21 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+
+import java.util.Comparator;
+
+/**
+ * Highest priority first across all tools, oldest first within a priority.
+ */
+public class StrictPriorityPolicy implements SchedulingPolicy {
+
+    static final Comparator<QueuedJob> ORDER = Comparator
+            .comparingInt(QueuedJob::priority).reversed()
+            .thenComparing(QueuedJob::timestampCreated)
+            .thenComparing(QueuedJob::jobId);
+
+    @Override
+    public Comparator<QueuedJob> jobOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.repository.JobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Backlog seen by admission control on the bulk submission endpoint. Jobs admitted onto the
+ * ingestion topic but not yet in the {@link DispatchIndex} are counted here, across all
+ * requests, until this instance ingests them. For tools this instance does not own (cluster
+ * mode) the index has nothing, so their backlog is the NEW count in the database, re-read in
+ * the background every {@code jfc.submit.store-backlog-refresh-ms} so admission never waits on
+ * a query; their admitted jobs are ingested elsewhere and stop counting after
+ * {@code jfc.submit.admitted-ttl-ms}.
+ */
+@Component
+public class SubmissionBacklog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SubmissionBacklog.class);
+
+    private final DispatchIndex dispatchIndex;
+    private final ClusterOwnership clusterOwnership;
+    private final JobRepository jobRepository;
+    private final ToolConfigRegistry toolConfigRegistry;
+
+    // Guarded by this; jobId -> admission, oldest first
+    private final LinkedHashMap<String, Admitted> admitted = new LinkedHashMap<>();
+    private final Map<String, Integer> admittedByTool = new HashMap<>();
+
+    // NEW jobs per tool owned by another instance, as of the last refresh
+    private volatile Map<String, Integer> storeBacklogs = Map.of();
+
+    @Value("${jfc.submit.admitted-ttl-ms}")
+    private long admittedTtlMs;
+
+    public SubmissionBacklog(DispatchIndex dispatchIndex, ClusterOwnership clusterOwnership, JobRepository jobRepository,
+                             ToolConfigRegistry toolConfigRegistry) {
+        this.dispatchIndex = dispatchIndex;
+        this.clusterOwnership = clusterOwnership;
+        this.jobRepository = jobRepository;
+        this.toolConfigRegistry = toolConfigRegistry;
+    }
+
+    /**
+     * Jobs waiting for dispatch on this instance plus those admitted and not yet ingested.
+     */
+    public synchronized int globalQueued() {
+        expire(System.currentTimeMillis());
+        return dispatchIndex.globalQueued() + admitted.size();
+    }
+
+    /**
+     * Counts {@code jobId} against its tool's backlog if neither that nor the global backlog is
+     * at its limit.
+     *
+     * @return whether the job may be admitted
+     */
+    public synchronized boolean tryAdmit(String jobId, String toolId, int maxQueuedPerTool, int maxQueued) {
+        long now = System.currentTimeMillis();
+        expire(now);
+        if (admitted.containsKey(jobId)) {
+            return true; // the same job again; ingestion drops the duplicate
+        }
+        int toolBacklog = (clusterOwnership.owns(toolId) ? dispatchIndex.queued(toolId) : storeBacklogs.getOrDefault(toolId, 0))
+                + admittedByTool.getOrDefault(toolId, 0);
+        if (toolBacklog >= maxQueuedPerTool || dispatchIndex.globalQueued() + admitted.size() >= maxQueued) {
+            return false;
+        }
+        admitted.put(jobId, new Admitted(toolId, now));
+        admittedByTool.merge(toolId, 1, Integer::sum);
+        return true;
+    }
+
+    /**
+     * Stops counting jobs that ingestion has picked up, or that never reached the topic.
+     */
+    public synchronized void remove(Collection<String> jobIds) {
+        for (String jobId : jobIds) {
+            Admitted job = admitted.remove(jobId);
+            if (job != null) {
+                admittedByTool.computeIfPresent(job.toolId(), (toolId, count) -> count == 1 ? null : count - 1);
+            }
+        }
+    }
+
+    private void expire(long now) {
+        Iterator<Admitted> jobs = admitted.values().iterator();
+        while (jobs.hasNext()) {
+            Admitted job = jobs.next();
+            if (job.admittedAt() > now - admittedTtlMs) {
+                break;
+            }
+            jobs.remove();
+            admittedByTool.computeIfPresent(job.toolId(), (toolId, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    /**
+     * Re-reads the backlog of the tools owned by other instances. Runs outside the monitor, so
+     * submissions keep being admitted against the previous counts while it queries.
+     */
+    @Scheduled(fixedDelayString = "${jfc.submit.store-backlog-refresh-ms}")
+    public void refreshStoreBacklogs() {
+        if (!clusterOwnership.isEnabled()) {
+            return;
+        }
+        try {
+            Map<String, Integer> backlogs = new HashMap<>();
+            for (String toolId : toolConfigRegistry.all().keySet()) {
+                if (!clusterOwnership.owns(toolId)) {
+                    backlogs.put(toolId, (int) jobRepository.countByToolIdAndStatus(toolId, JobStatus.NEW));
+                }
+            }
+            storeBacklogs = Map.copyOf(backlogs);
+        } catch (Exception e) {
+            LOGGER.error("Error refreshing the backlog of tools owned by other instances", e);
+        }
+    }
+
+    private record Admitted(String toolId, long admittedAt) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.capstone.jfc.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: {@code wheelSize} buckets of {@code tickMs} each, turned by one thread.
+ * Scheduling is O(1) and lock-free for callers; an item due further out than one revolution
+ * stays in its bucket for the extra rounds. Items fire at most one tick late, and everything
+ * due in the same tick is handed to the callback as one batch, on the wheel thread.
+ */
+public class TimerWheel<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimerWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<ArrayDeque<Entry<T>>> buckets;
+    private final Queue<Entry<T>> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Consumer<List<T>> onExpired;
+    private final String name;
+
+    private volatile Thread worker;
+    private long startNanos;
+
+    /**
+     * @param wheelSize rounded up to a power of two
+     */
+    public TimerWheel(String name, long tickMs, int wheelSize, Consumer<List<T>> onExpired) {
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        int buckets = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = buckets - 1;
+        this.buckets = new ArrayList<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            this.buckets.add(new ArrayDeque<>());
+        }
+        this.onExpired = onExpired;
+    }
+
+    public synchronized void start() {
+        if (worker != null) {
+            return;
+        }
+        startNanos = System.nanoTime();
+        worker = Thread.ofPlatform().name(name).daemon().start(this::run);
+    }
+
+    public void stop() {
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Fires {@code item} after {@code delayMs} (immediately on the next tick if not positive).
+     */
+    public void schedule(T item, long delayMs) {
+        incoming.add(new Entry<>(item, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs))));
+        size.incrementAndGet();
+    }
+
+    /**
+     * Items scheduled and not yet fired.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long sleepNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            transferIncoming(tick);
+            List<T> expired = new ArrayList<>();
+            Iterator<Entry<T>> entries = buckets.get((int) (tick & mask)).iterator();
+            while (entries.hasNext()) {
+                Entry<T> entry = entries.next();
+                if (entry.remainingRounds <= 0) {
+                    entries.remove();
+                    expired.add(entry.item);
+                } else {
+                    entry.remainingRounds--;
+                }
+            }
+            tick++;
+
+            if (!expired.isEmpty()) {
+                size.addAndGet(-expired.size());
+                try {
+                    onExpired.accept(expired);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Timer wheel {} callback failed for {} items", name, expired.size(), e);
+                }
+            }
+        }
+    }
+
+    private void transferIncoming(long tick) {
+        Entry<T> entry;
+        while ((entry = incoming.poll()) != null) {
+            long dueTick = Math.max(tick, (entry.deadlineNanos - startNanos) / tickNanos);
+            entry.remainingRounds = (dueTick - tick) / buckets.size();
+            buckets.get((int) (dueTick & mask)).add(entry);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long deadlineNanos;
+        private long remainingRounds;
+
+        private Entry(T item, long deadlineNanos) {
+            this.item = item;
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+}
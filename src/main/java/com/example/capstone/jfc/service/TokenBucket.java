@@ -0,0 +1,61 @@
+package com.example.capstone.jfc.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code burst} tokens and refilled at {@code ratePerSecond}. The
+ * whole state is one timestamp, the {@link System#nanoTime()} at which the bucket will be full
+ * again, so taking a token is a single compare-and-set and never blocks.
+ */
+public class TokenBucket {
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * Starts full.
+     */
+    public TokenBucket(double ratePerSecond, int burst, long nowNanos) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.intervalNanos = Math.max(1, Math.round(1_000_000_000d / ratePerSecond));
+        this.capacityNanos = intervalNanos * this.burst;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanos until the next one is
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long full = fullAt.get();
+            long next = Math.max(full - nowNanos, 0) + nowNanos + intervalNanos;
+            long wait = next - nowNanos - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire} that ended up unused.
+     */
+    public void release(long nowNanos) {
+        long full = fullAt.get();
+        while (full - nowNanos > 0 && !fullAt.compareAndSet(full, Math.max(full - intervalNanos - nowNanos, 0) + nowNanos)) {
+            full = fullAt.get();
+        }
+    }
+
+    public boolean hasSettings(double ratePerSecond, int burst) {
+        return this.ratePerSecond == ratePerSecond && this.burst == Math.max(1, burst);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+
+import java.util.Map;
+
+/**
+ * Published by {@link ToolConfigRegistry} after a new snapshot has been swapped in.
+ */
+public record ToolConfigChangedEvent(Map<String, ToolConfigEntity> previous,
+                                     Map<String, ToolConfigEntity> current) {
+}
@@ -0,0 +1,97 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.repository.ToolConfigRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of {@code tool_config}. Readers get an immutable snapshot keyed by
+ * toolId; a change (seen by polling the table's version fingerprint, or pushed by the
+ * admin endpoint) swaps in a whole new snapshot, so readers never see a half-applied update.
+ * The entities in a snapshot are detached and must be treated as read-only.
+ */
+@Component
+public class ToolConfigRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToolConfigRegistry.class);
+
+    private final ToolConfigRepository toolConfigRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile Snapshot snapshot = new Snapshot("", Map.of());
+
+    public ToolConfigRegistry(ToolConfigRepository toolConfigRepository,
+                              ApplicationEventPublisher eventPublisher) {
+        this.toolConfigRepository = toolConfigRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    public ToolConfigEntity get(String toolId) {
+        return snapshot.configs().get(toolId);
+    }
+
+    public Map<String, ToolConfigEntity> all() {
+        return snapshot.configs();
+    }
+
+    /**
+     * Reloads the table only if its version fingerprint moved since the last load.
+     */
+    @Scheduled(fixedDelayString = "${jfc.tools.refresh-ms}")
+    public void poll() {
+        try {
+            if (!Objects.equals(toolConfigRepository.versionFingerprint(), snapshot.fingerprint())) {
+                refresh();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error polling tool config version", e);
+        }
+    }
+
+    /**
+     * Unconditionally reloads the table and publishes a {@link ToolConfigChangedEvent} if anything changed.
+     */
+    public synchronized void refresh() {
+        String fingerprint = toolConfigRepository.versionFingerprint();
+        Map<String, ToolConfigEntity> configs = toolConfigRepository.findAll().stream()
+                .collect(Collectors.toUnmodifiableMap(ToolConfigEntity::getToolId, Function.identity()));
+
+        Snapshot previous = snapshot;
+        snapshot = new Snapshot(fingerprint, configs);
+
+        if (!sameVersions(previous.configs(), configs)) {
+            LOGGER.info("Loaded {} tool configs (fingerprint {})", configs.size(), fingerprint);
+            eventPublisher.publishEvent(new ToolConfigChangedEvent(previous.configs(), configs));
+        }
+    }
+
+    private static boolean sameVersions(Map<String, ToolConfigEntity> a, Map<String, ToolConfigEntity> b) {
+        if (!a.keySet().equals(b.keySet())) {
+            return false;
+        }
+        for (ToolConfigEntity config : b.values()) {
+            if (!Objects.equals(config.getVersion(), a.get(config.getToolId()).getVersion())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Snapshot(String fingerprint, Map<String, ToolConfigEntity> configs) {
+    }
+}
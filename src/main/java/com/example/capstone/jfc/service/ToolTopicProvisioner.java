@@ -0,0 +1,109 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Creates the destination topic of every row in {@code tool_config}, so onboarding a tool
+ * is a config change and not a deployment. A topic gets one partition per job the tool may
+ * run at once (within {@code jfc.tools.topics.min/max-partitions}), so the tool can put one
+ * consumer on each slot; raising the limit grows the topic. Kafka cannot shrink a topic, so
+ * a lowered limit leaves its partitions in place.
+ */
+@Component
+public class ToolTopicProvisioner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ToolTopicProvisioner.class);
+
+    private final KafkaAdmin kafkaAdmin;
+    private final ToolConfigRegistry toolConfigRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${jfc.tools.topics.min-partitions}")
+    private int minPartitions;
+
+    @Value("${jfc.tools.topics.max-partitions}")
+    private int maxPartitions;
+
+    @Value("${jfc.tools.topics.replication-factor}")
+    private short replicationFactor;
+
+    // Guarded by this
+    private Map<String, Integer> provisioned = Map.of();
+    private volatile boolean pending = true;
+
+    public ToolTopicProvisioner(KafkaAdmin kafkaAdmin, ToolConfigRegistry toolConfigRegistry,
+                                ApplicationEventPublisher eventPublisher) {
+        this.kafkaAdmin = kafkaAdmin;
+        this.toolConfigRegistry = toolConfigRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        provision();
+    }
+
+    @EventListener
+    public void onToolConfigChanged(ToolConfigChangedEvent event) {
+        provision();
+    }
+
+    // Picks up where a failed attempt (e.g. broker unreachable) left off
+    @Scheduled(fixedDelayString = "${jfc.tools.refresh-ms}")
+    public void retryPending() {
+        if (pending) {
+            provision();
+        }
+    }
+
+    /**
+     * Creates missing tool topics and adds partitions where a tool's limit went up, then
+     * publishes a {@link ToolTopicsProvisionedEvent} if anything changed.
+     */
+    public synchronized void provision() {
+        Map<String, Integer> wanted = new TreeMap<>();
+        for (ToolConfigEntity config : toolConfigRegistry.all().values()) {
+            if (config.getDestinationTopic() != null && !config.getDestinationTopic().isBlank()) {
+                // Tools sharing a topic get the partitions of the most parallel one
+                wanted.merge(config.getDestinationTopic(), partitions(config), Math::max);
+            }
+        }
+
+        try {
+            if (!wanted.isEmpty()) {
+                kafkaAdmin.createOrModifyTopics(wanted.entrySet().stream()
+                        .map(topic -> new NewTopic(topic.getKey(), topic.getValue(), replicationFactor))
+                        .toArray(NewTopic[]::new));
+            }
+            pending = false;
+        } catch (Exception e) {
+            pending = true;
+            LOGGER.error("Error provisioning {} tool topics; will retry", wanted.size(), e);
+            return;
+        }
+
+        if (!wanted.equals(provisioned)) {
+            LOGGER.info("Provisioned {} tool topics: {}", wanted.size(), wanted);
+            provisioned = Map.copyOf(wanted);
+            eventPublisher.publishEvent(new ToolTopicsProvisionedEvent(provisioned));
+        }
+    }
+
+    private int partitions(ToolConfigEntity config) {
+        int limit = config.getMaxConcurrentJobs() == null ? minPartitions : config.getMaxConcurrentJobs();
+        return Math.max(minPartitions, Math.min(maxPartitions, limit));
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.capstone.jfc.service;
+
+import java.util.Map;
+
+/**
+ * Published by {@link ToolTopicProvisioner} when the set of tool topics or their partition counts changed.
+ *
+ * @param partitions partition count by destination topic, for every configured tool
+ */
+public record ToolTopicsProvisionedEvent(Map<String, Integer> partitions) {
+}
@@ -0,0 +1,62 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares dispatch slots between tools in proportion to their {@code schedulingWeight},
+ * regardless of how deep each backlog is. Each tool carries a virtual finish tag that
+ * advances by {@code 1 / weight} per dispatched job; the tool with the smallest tag goes
+ * next. Tools that were idle are brought up to the current virtual time when they come
+ * back, so they cannot bank credit. Within a tool, jobs follow strict priority.
+ */
+public class WeightedFairQueuingPolicy implements SchedulingPolicy {
+
+    private final ToolConfigRegistry toolConfigRegistry;
+
+    private final Map<String, Double> finishTags = new HashMap<>();
+    private double virtualTime;
+
+    public WeightedFairQueuingPolicy(ToolConfigRegistry toolConfigRegistry) {
+        this.toolConfigRegistry = toolConfigRegistry;
+    }
+
+    @Override
+    public Comparator<QueuedJob> jobOrder() {
+        return StrictPriorityPolicy.ORDER;
+    }
+
+    @Override
+    public void beginCycle(Collection<String> toolIds) {
+        for (String toolId : toolIds) {
+            finishTags.merge(toolId, virtualTime, Math::max);
+        }
+    }
+
+    @Override
+    public int compareTools(String toolA, QueuedJob headA, String toolB, QueuedJob headB) {
+        int byTag = Double.compare(finishTags.getOrDefault(toolA, virtualTime),
+                finishTags.getOrDefault(toolB, virtualTime));
+        return byTag != 0 ? byTag : jobOrder().compare(headA, headB);
+    }
+
+    @Override
+    public void onDispatched(QueuedJob job) {
+        double start = Math.max(finishTags.getOrDefault(job.toolId(), virtualTime), virtualTime);
+        virtualTime = start;
+        finishTags.put(job.toolId(), start + 1.0 / weight(job.toolId()));
+    }
+
+    private int weight(String toolId) {
+        ToolConfigEntity config = toolConfigRegistry.get(toolId);
+        if (config == null || config.getSchedulingWeight() == null || config.getSchedulingWeight() < 1) {
+            return 1;
+        }
+        return config.getSchedulingWeight();
+    }
+}
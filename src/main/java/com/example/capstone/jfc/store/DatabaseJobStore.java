@@ -0,0 +1,71 @@
+package com.example.capstone.jfc.store;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import com.example.capstone.jfc.repository.JobRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes every change straight to MySQL; the database is the only copy of the job state.
+ */
+public class DatabaseJobStore implements JobStore {
+
+    private final JobBatchRepository jobBatchRepository;
+    private final JobRepository jobRepository;
+
+    public DatabaseJobStore(JobBatchRepository jobBatchRepository, JobRepository jobRepository) {
+        this.jobBatchRepository = jobBatchRepository;
+        this.jobRepository = jobRepository;
+    }
+
+    @Override
+    public void insertNewJobs(List<JobEntity> jobs) {
+        jobBatchRepository.insertNewJobs(jobs);
+    }
+
+    @Override
+    public List<String> updateStatuses(List<StatusUpdate> updates) {
+        return jobBatchRepository.updateStatuses(updates);
+    }
+
+    @Override
+    public int markInProgress(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        return jobBatchRepository.markInProgress(jobIds, leaseExpiresAt);
+    }
+
+    @Override
+    public void extendLeases(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        jobBatchRepository.extendLeases(jobIds, leaseExpiresAt);
+    }
+
+    @Override
+    public int transitionStatus(List<String> jobIds, JobStatus from, JobStatus to) {
+        return jobBatchRepository.transitionStatus(jobIds, from, to);
+    }
+
+    @Override
+    public List<JobEntity> findRetryState(Collection<String> jobIds) {
+        return jobBatchRepository.findRetryState(jobIds);
+    }
+
+    @Override
+    public List<String> scheduleRetries(List<JobEntity> jobs) {
+        return jobBatchRepository.scheduleRetries(jobs);
+    }
+
+    @Override
+    public List<JobEntity> findJobs(Collection<String> jobIds) {
+        return jobRepository.findAllById(jobIds);
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> jobIds) {
+        return jobBatchRepository.findExistingIds(jobIds);
+    }
+}
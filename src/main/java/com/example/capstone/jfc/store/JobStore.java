@@ -0,0 +1,78 @@
+package com.example.capstone.jfc.store;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The job state changes made on the hot paths (ingestion, dispatch, status, leases, retries).
+ * Which store backs them is chosen by {@code jfc.store.mode}: {@link DatabaseJobStore} writes
+ * each change through to MySQL, {@link WalJobStore} keeps the state in memory behind a local
+ * write-ahead log and writes MySQL behind. Every method has the conditional semantics of the
+ * matching {@code JobBatchRepository} statement.
+ */
+public interface JobStore {
+
+    /**
+     * Adds the given jobs as NEW; jobIds that already exist are left alone.
+     */
+    void insertNewJobs(List<JobEntity> jobs);
+
+    /**
+     * Applies tool-reported statuses. A report with a dispatch epoch only applies to the dispatch
+     * it came from (see {@code JobBatchRepository#updateStatuses}), so a late report from an
+     * earlier run of a reaped or retried job is ignored; epoch 0 applies unconditionally.
+     *
+     * @return the jobIds whose status was set
+     */
+    List<String> updateStatuses(List<StatusUpdate> updates);
+
+    /**
+     * Moves NEW jobs to IN_PROGRESS with the given slot lease deadline and bumps their dispatch epoch.
+     *
+     * @return the number of jobs that made the transition
+     */
+    int markInProgress(List<String> jobIds, LocalDateTime leaseExpiresAt);
+
+    /**
+     * Moves the lease deadline of IN_PROGRESS jobs.
+     */
+    void extendLeases(List<String> jobIds, LocalDateTime leaseExpiresAt);
+
+    /**
+     * Moves the given jobs from {@code from} to {@code to}, leaving jobs in any other status untouched.
+     *
+     * @return the number of jobs that made the transition
+     */
+    int transitionStatus(List<String> jobIds, JobStatus from, JobStatus to);
+
+    /**
+     * Retry bookkeeping of the given jobs: jobId, toolId, priority, status, creation time,
+     * attempts and dispatch epoch.
+     */
+    List<JobEntity> findRetryState(Collection<String> jobIds);
+
+    /**
+     * Moves jobs that are still NEW or IN_PROGRESS to RETRY_WAIT with the attempt count and
+     * next attempt time of the given entities, fenced by their dispatch epoch like
+     * {@link #updateStatuses}.
+     *
+     * @return the jobIds that made the transition
+     */
+    List<String> scheduleRetries(List<JobEntity> jobs);
+
+    /**
+     * The full jobs with the given ids; unknown ids are left out.
+     */
+    List<JobEntity> findJobs(Collection<String> jobIds);
+
+    /**
+     * Which of the given jobIds were ever ingested, including jobs already archived.
+     */
+    Set<String> findExistingIds(Collection<String> jobIds);
+}
@@ -0,0 +1,167 @@
+package com.example.capstone.jfc.store;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A job as held by {@link WalJobStore}: times are epoch millis ({@link #NONE} for null) and
+ * the status is an ordinal, so a job costs a few strings plus primitives. Also knows its two
+ * log encodings: the full image (ingestion, snapshots) and the state record (every later change).
+ */
+final class StoredJob {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final JobStatus[] STATUSES = JobStatus.values();
+
+    final String jobId;
+    final String toolId;
+    final String payload;
+    final String payloadRef;
+    final int priority;
+    final long createdAt;
+
+    byte status;
+    long updatedAt;
+    long leaseExpiresAt = NONE;
+    int attempts;
+    long nextAttemptAt = NONE;
+    int dispatchEpoch;
+
+    // Write-behind bookkeeping, not logged
+    boolean persisted;
+    boolean dirty;
+
+    StoredJob(String jobId, String toolId, String payload, String payloadRef, int priority, long createdAt) {
+        this.jobId = jobId;
+        this.toolId = toolId;
+        this.payload = payload;
+        this.payloadRef = payloadRef;
+        this.priority = priority;
+        this.createdAt = createdAt;
+    }
+
+    static StoredJob of(JobEntity job) {
+        StoredJob stored = new StoredJob(job.getJobId(), job.getToolId(), job.getPayload(), job.getPayloadRef(),
+                job.getPriority() == null ? 0 : job.getPriority(), millis(job.getTimestampCreated()));
+        stored.status = (byte) (job.getStatus() == null ? JobStatus.NEW : job.getStatus()).ordinal();
+        stored.updatedAt = millis(job.getTimestampUpdated());
+        stored.leaseExpiresAt = millis(job.getLeaseExpiresAt());
+        stored.attempts = job.getAttempts();
+        stored.nextAttemptAt = millis(job.getNextAttemptAt());
+        stored.dispatchEpoch = job.getDispatchEpoch();
+        return stored;
+    }
+
+    JobStatus status() {
+        return STATUSES[status];
+    }
+
+    boolean isFinished() {
+        return status() == JobStatus.SUCCESS || status() == JobStatus.FAIL;
+    }
+
+    void setStatus(JobStatus status, long now) {
+        this.status = (byte) status.ordinal();
+        this.updatedAt = now;
+    }
+
+    JobEntity toEntity() {
+        JobEntity job = new JobEntity();
+        job.setJobId(jobId);
+        job.setToolId(toolId);
+        job.setPayload(payload);
+        job.setPayloadRef(payloadRef);
+        job.setPriority(priority);
+        job.setStatus(status());
+        job.setTimestampCreated(time(createdAt));
+        job.setTimestampUpdated(time(updatedAt));
+        job.setLeaseExpiresAt(time(leaseExpiresAt));
+        job.setAttempts(attempts);
+        job.setNextAttemptAt(time(nextAttemptAt));
+        job.setDispatchEpoch(dispatchEpoch);
+        return job;
+    }
+
+    // Full image: jobId, toolId, payload, payloadRef, priority, createdAt, then the state fields
+
+    void writeImage(ByteBuffer out) {
+        putString(out, jobId);
+        putString(out, toolId);
+        putString(out, payload);
+        putString(out, payloadRef);
+        out.putInt(priority);
+        out.putLong(createdAt);
+        writeStateFields(out);
+    }
+
+    static StoredJob readImage(ByteBuffer in) {
+        StoredJob job = new StoredJob(getString(in), getString(in), getString(in), getString(in),
+                in.getInt(), in.getLong());
+        job.readStateFields(in);
+        return job;
+    }
+
+    // State record: jobId, then the state fields
+
+    void writeState(ByteBuffer out) {
+        putString(out, jobId);
+        writeStateFields(out);
+    }
+
+    static String readStateJobId(ByteBuffer in) {
+        return getString(in);
+    }
+
+    void readStateFields(ByteBuffer in) {
+        status = in.get();
+        updatedAt = in.getLong();
+        leaseExpiresAt = in.getLong();
+        attempts = in.getInt();
+        nextAttemptAt = in.getLong();
+        dispatchEpoch = in.getInt();
+    }
+
+    private void writeStateFields(ByteBuffer out) {
+        out.put(status);
+        out.putLong(updatedAt);
+        out.putLong(leaseExpiresAt);
+        out.putInt(attempts);
+        out.putLong(nextAttemptAt);
+        out.putInt(dispatchEpoch);
+    }
+
+    static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static long millis(LocalDateTime time) {
+        return time == null ? NONE : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static LocalDateTime time(long millis) {
+        return millis == NONE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
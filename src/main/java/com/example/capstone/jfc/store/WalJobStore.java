@@ -0,0 +1,460 @@
+package com.example.capstone.jfc.store;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Job store whose authoritative state is in memory. Every change is appended to a local
+ * {@link WriteAheadLog} before the call returns (and synced once per call, so once per consumer
+ * batch), which makes a state change cost microseconds instead of a database round trip.
+ * MySQL is written behind in batches every {@code jfc.store.flush-ms}.
+ * <p>
+ * On startup the latest snapshot and the log after it are replayed, everything recovered is
+ * written to MySQL, and unfinished jobs that only MySQL knows (e.g. from before this mode was
+ * enabled) are loaded; only then do the dispatch index and retry timers rebuild from MySQL.
+ * While running, MySQL trails the store by up to one flush interval, so the read-only
+ * endpoints may briefly show a job's previous status. Finished jobs are dropped from memory
+ * {@code retainFinishedMs} after they have been written behind.
+ */
+public class WalJobStore implements JobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WalJobStore.class);
+
+    private static final byte JOB = 1;
+    private static final byte STATE = 2;
+    private static final byte EVICT = 3;
+    private static final byte SNAPSHOT_ENTRY = 0; // snapshot entries are bare images without a type
+
+    private final JobBatchRepository jobBatchRepository;
+    private final WriteAheadLog wal;
+    private final int flushBatchSize;
+    private final long retainFinishedMs;
+    private final int pageSize;
+
+    // Guarded by this
+    private final Map<String, StoredJob> jobs = new HashMap<>();
+    private final ArrayDeque<StoredJob> dirty = new ArrayDeque<>();
+    private final ArrayDeque<StoredJob> finished = new ArrayDeque<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private long recordsSinceSnapshot;
+
+    // One write-behind pass at a time
+    private final Object flushLock = new Object();
+
+    public WalJobStore(JobBatchRepository jobBatchRepository, Path dir, int segmentBytes, boolean sync,
+                       int flushBatchSize, long retainFinishedMs, int pageSize) {
+        this.jobBatchRepository = jobBatchRepository;
+        this.wal = new WriteAheadLog(dir, segmentBytes, sync);
+        this.flushBatchSize = flushBatchSize;
+        this.retainFinishedMs = retainFinishedMs;
+        this.pageSize = pageSize;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            wal.recover(entry -> {
+                StoredJob job = StoredJob.readImage(entry);
+                jobs.put(job.jobId, job);
+            }, this::replay);
+
+            // Whether the last changes reached MySQL is unknown, so everything is written again
+            List<StoredJob> recovered = new ArrayList<>(jobs.values());
+            recovered.sort(Comparator.comparingLong(job -> job.updatedAt));
+            for (StoredJob job : recovered) {
+                markDirty(job);
+                if (job.isFinished()) {
+                    finished.add(job);
+                }
+            }
+        }
+        int written = writeBehind();
+        int loaded = loadUnfinished();
+        snapshot();
+        LOGGER.info("Job store recovered in {} ms: {} jobs in memory ({} written behind, {} loaded from the database)",
+                System.currentTimeMillis() - start, size(), written, loaded);
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        synchronized (this) {
+            wal.commit();
+        }
+    }
+
+    /**
+     * Only jobIds held in memory are skipped. Finished jobs evicted from memory are kept out by
+     * {@code IngestionDeduplicator}, which checks every id its filter may have seen against
+     * {@link #findExistingIds}, MySQL included; checking every batch here would put a database
+     * round trip back on the ingestion path.
+     */
+    @Override
+    public synchronized void insertNewJobs(List<JobEntity> newJobs) {
+        long now = System.currentTimeMillis();
+        for (JobEntity entity : newJobs) {
+            if (jobs.containsKey(entity.getJobId())) {
+                continue;
+            }
+            StoredJob job = new StoredJob(entity.getJobId(), entity.getToolId(), entity.getPayload(),
+                    entity.getPayloadRef(), entity.getPriority() == null ? 0 : entity.getPriority(),
+                    entity.getTimestampCreated() == null ? now : StoredJob.millis(entity.getTimestampCreated()));
+            job.setStatus(JobStatus.NEW, now);
+            jobs.put(job.jobId, job);
+            logImage(job);
+            markDirty(job);
+        }
+        wal.commit();
+    }
+
+    @Override
+    public synchronized List<String> updateStatuses(List<StatusUpdate> updates) {
+        long now = System.currentTimeMillis();
+        List<String> applied = new ArrayList<>(updates.size());
+        for (StatusUpdate update : updates) {
+            StoredJob job = jobs.get(update.jobId());
+            if (job != null && StatusUpdate.isCurrent(update.dispatchEpoch(), job.status(), job.dispatchEpoch)) {
+                job.setStatus(update.status(), now);
+                if (update.dispatchEpoch() != 0) {
+                    job.dispatchEpoch = update.dispatchEpoch();
+                }
+                changed(job);
+                applied.add(job.jobId);
+            }
+        }
+        wal.commit();
+        return applied;
+    }
+
+
+    @Override
+    public synchronized int markInProgress(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        long now = System.currentTimeMillis();
+        int updated = 0;
+        for (String jobId : jobIds) {
+            StoredJob job = jobs.get(jobId);
+            if (job != null && job.status() == JobStatus.NEW) {
+                job.setStatus(JobStatus.IN_PROGRESS, now);
+                job.leaseExpiresAt = StoredJob.millis(leaseExpiresAt);
+                job.dispatchEpoch++;
+                changed(job);
+                updated++;
+            }
+        }
+        wal.commit();
+        return updated;
+    }
+
+    @Override
+    public synchronized void extendLeases(List<String> jobIds, LocalDateTime leaseExpiresAt) {
+        for (String jobId : jobIds) {
+            StoredJob job = jobs.get(jobId);
+            if (job != null && job.status() == JobStatus.IN_PROGRESS) {
+                job.leaseExpiresAt = StoredJob.millis(leaseExpiresAt);
+                changed(job);
+            }
+        }
+        wal.commit();
+    }
+
+    @Override
+    public synchronized int transitionStatus(List<String> jobIds, JobStatus from, JobStatus to) {
+        long now = System.currentTimeMillis();
+        int updated = 0;
+        for (String jobId : jobIds) {
+            StoredJob job = jobs.get(jobId);
+            if (job != null && job.status() == from) {
+                job.setStatus(to, now);
+                changed(job);
+                updated++;
+            }
+        }
+        wal.commit();
+        return updated;
+    }
+
+    @Override
+    public synchronized List<JobEntity> findRetryState(Collection<String> jobIds) {
+        return findJobs(jobIds);
+    }
+
+    @Override
+    public synchronized List<String> scheduleRetries(List<JobEntity> retries) {
+        long now = System.currentTimeMillis();
+        List<String> scheduled = new ArrayList<>(retries.size());
+        for (JobEntity retry : retries) {
+            StoredJob job = jobs.get(retry.getJobId());
+            if (job != null && (job.status() == JobStatus.NEW || job.status() == JobStatus.IN_PROGRESS)
+                    && StatusUpdate.isCurrent(retry.getDispatchEpoch(), job.status(), job.dispatchEpoch)) {
+                job.setStatus(JobStatus.RETRY_WAIT, now);
+                if (retry.getDispatchEpoch() != 0) {
+                    job.dispatchEpoch = retry.getDispatchEpoch();
+                }
+                job.attempts = retry.getAttempts();
+                job.nextAttemptAt = StoredJob.millis(retry.getNextAttemptAt());
+                job.leaseExpiresAt = StoredJob.NONE;
+                changed(job);
+                scheduled.add(job.jobId);
+            }
+        }
+        wal.commit();
+        return scheduled;
+    }
+
+    @Override
+    public synchronized List<JobEntity> findJobs(Collection<String> jobIds) {
+        List<JobEntity> found = new ArrayList<>(jobIds.size());
+        for (String jobId : jobIds) {
+            StoredJob job = jobs.get(jobId);
+            if (job != null) {
+                found.add(job.toEntity());
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> jobIds) {
+        Set<String> existing = new HashSet<>();
+        List<String> unknown = new ArrayList<>();
+        synchronized (this) {
+            for (String jobId : jobIds) {
+                if (jobs.containsKey(jobId)) {
+                    existing.add(jobId);
+                } else {
+                    unknown.add(jobId);
+                }
+            }
+        }
+        // Finished jobs are evicted from memory but not from MySQL
+        if (!unknown.isEmpty()) {
+            existing.addAll(jobBatchRepository.findExistingIds(unknown));
+        }
+        return existing;
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+
+    /**
+     * Writes pending changes behind to MySQL and drops finished jobs whose retention is up.
+     */
+    @Scheduled(fixedDelayString = "${jfc.store.flush-ms}")
+    public void flush() {
+        try {
+            writeBehind();
+            evictFinished();
+        } catch (Exception e) {
+            // The changes stay pending and go out with the next flush
+            LOGGER.error("Error writing job changes behind to the database", e);
+        }
+    }
+
+    /**
+     * Snapshots the in-memory state and deletes the log segments it replaces, which bounds
+     * both disk use and replay time.
+     */
+    @Scheduled(fixedDelayString = "${jfc.store.snapshot-interval-ms}")
+    public void snapshot() {
+        try {
+            long firstSegment;
+            List<byte[]> images;
+            synchronized (this) {
+                if (recordsSinceSnapshot == 0) {
+                    return;
+                }
+                firstSegment = wal.roll();
+                images = new ArrayList<>(jobs.size());
+                for (StoredJob job : jobs.values()) {
+                    ByteBuffer image = encode(SNAPSHOT_ENTRY, job);
+                    byte[] bytes = new byte[image.remaining()];
+                    image.get(bytes);
+                    images.add(bytes);
+                }
+                recordsSinceSnapshot = 0;
+            }
+            long start = System.currentTimeMillis();
+            wal.writeSnapshot(firstSegment, images);
+            LOGGER.info("Wrote job store snapshot of {} jobs in {} ms", images.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            LOGGER.error("Error writing job store snapshot", e);
+        }
+    }
+
+    private int writeBehind() {
+        synchronized (flushLock) {
+            int written = 0;
+            while (true) {
+                List<StoredJob> batch = new ArrayList<>();
+                List<JobEntity> inserts = new ArrayList<>();
+                List<JobEntity> states = new ArrayList<>();
+                synchronized (this) {
+                    while (batch.size() < flushBatchSize && !dirty.isEmpty()) {
+                        StoredJob job = dirty.poll();
+                        job.dirty = false;
+                        batch.add(job);
+                        JobEntity entity = job.toEntity();
+                        if (!job.persisted) {
+                            inserts.add(entity);
+                        }
+                        states.add(entity);
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return written;
+                }
+
+                try {
+                    jobBatchRepository.writeBehind(inserts, states);
+                } catch (RuntimeException e) {
+                    synchronized (this) {
+                        batch.forEach(this::markDirty);
+                    }
+                    throw e;
+                }
+                synchronized (this) {
+                    batch.forEach(job -> job.persisted = true);
+                }
+                written += batch.size();
+                if (batch.size() < flushBatchSize) {
+                    return written;
+                }
+            }
+        }
+    }
+
+    private synchronized void evictFinished() {
+        long cutoff = System.currentTimeMillis() - retainFinishedMs;
+        int evicted = 0;
+        while (!finished.isEmpty()) {
+            StoredJob job = finished.peek();
+            if (jobs.get(job.jobId) != job || !job.isFinished()) {
+                finished.poll(); // evicted already, or picked up again
+                continue;
+            }
+            if (job.updatedAt > cutoff || job.dirty || !job.persisted) {
+                break;
+            }
+            finished.poll();
+            jobs.remove(job.jobId);
+            append(evictRecord(job.jobId));
+            evicted++;
+        }
+        if (evicted > 0) {
+            wal.commit();
+            LOGGER.debug("Evicted {} finished jobs from the job store", evicted);
+        }
+    }
+
+    // Unfinished jobs that MySQL has and the log does not, one keyset page at a time
+    private int loadUnfinished() {
+        int loaded = 0;
+        List<JobEntity> page = jobBatchRepository.findUnfinished("", pageSize);
+        while (!page.isEmpty()) {
+            synchronized (this) {
+                for (JobEntity entity : page) {
+                    if (!jobs.containsKey(entity.getJobId())) {
+                        StoredJob job = StoredJob.of(entity);
+                        job.persisted = true;
+                        jobs.put(job.jobId, job);
+                        logImage(job);
+                        loaded++;
+                    }
+                }
+                wal.commit();
+            }
+            page = jobBatchRepository.findUnfinished(page.get(page.size() - 1).getJobId(), pageSize);
+        }
+        return loaded;
+    }
+
+    private void replay(ByteBuffer record) {
+        byte type = record.get();
+        switch (type) {
+            case JOB -> {
+                StoredJob job = StoredJob.readImage(record);
+                jobs.put(job.jobId, job);
+            }
+            case STATE -> {
+                // Jobs evicted before the crash have no image left; their state records are moot
+                StoredJob job = jobs.get(StoredJob.readStateJobId(record));
+                if (job != null) {
+                    job.readStateFields(record);
+                }
+            }
+            case EVICT -> jobs.remove(StoredJob.getString(record));
+            default -> throw new IllegalStateException("Unknown job store record type " + type);
+        }
+    }
+
+    private void changed(StoredJob job) {
+        append(encode(STATE, job));
+        markDirty(job);
+        if (job.isFinished()) {
+            finished.add(job);
+        }
+    }
+
+    private void logImage(StoredJob job) {
+        append(encode(JOB, job));
+    }
+
+    private void markDirty(StoredJob job) {
+        if (!job.dirty) {
+            job.dirty = true;
+            dirty.add(job);
+        }
+    }
+
+    private void append(ByteBuffer record) {
+        try {
+            wal.append(record);
+            recordsSinceSnapshot++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the job store log", e);
+        }
+    }
+
+    private ByteBuffer encode(byte type, StoredJob job) {
+        while (true) {
+            try {
+                scratch.clear();
+                if (type != SNAPSHOT_ENTRY) {
+                    scratch.put(type);
+                }
+                if (type == STATE) {
+                    job.writeState(scratch);
+                } else {
+                    job.writeImage(scratch);
+                }
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private ByteBuffer evictRecord(String jobId) {
+        scratch.clear();
+        scratch.put(EVICT);
+        StoredJob.putString(scratch, jobId);
+        return scratch.flip();
+    }
+}
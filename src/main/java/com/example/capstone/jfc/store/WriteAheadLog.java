@@ -0,0 +1,245 @@
+package com.example.capstone.jfc.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only log in one directory: memory-mapped segment files {@code wal-<n>.log} and the
+ * latest snapshot {@code snapshot-<n>.bin}, where a snapshot holds everything logged before
+ * segment {@code n}. Records are framed as {@code [int length][int crc32c][body]}; segments
+ * are created zero-filled, so a zero length marks the end of a segment's data, and a bad
+ * checksum marks a record torn by a crash. Not thread-safe; the owner serializes access.
+ */
+final class WriteAheadLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final int FRAME_HEADER = 2 * Integer.BYTES;
+    private static final int SNAPSHOT_MAGIC = 0x4A464353; // "JFCS"
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean syncOnCommit;
+    private final CRC32C crc = new CRC32C();
+
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int syncedUpTo;
+
+    WriteAheadLog(Path dir, int segmentBytes, boolean syncOnCommit) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.syncOnCommit = syncOnCommit;
+    }
+
+    /**
+     * Feeds the latest snapshot's entries and then every record logged after it to the readers,
+     * and opens a fresh segment for appends. The buffers passed to the readers are only valid
+     * during the call.
+     */
+    void recover(Consumer<ByteBuffer> snapshotEntries, Consumer<ByteBuffer> records) throws IOException {
+        Files.createDirectories(dir);
+        long firstSegment = 0;
+        Path snapshot = latest("snapshot-", ".bin");
+        if (snapshot != null) {
+            firstSegment = readSnapshot(snapshot, snapshotEntries);
+        }
+
+        long next = firstSegment;
+        for (Path path : list("wal-", ".log")) {
+            long index = index(path, "wal-", ".log");
+            if (index < firstSegment) {
+                // Covered by the snapshot; left behind by a crash right after it was written
+                Files.delete(path);
+                continue;
+            }
+            replaySegment(path, records);
+            next = index + 1;
+        }
+        openSegment(next);
+    }
+
+    /**
+     * Appends one record; {@code body} is read from its position to its limit.
+     */
+    void append(ByteBuffer body) throws IOException {
+        int length = body.remaining();
+        if (FRAME_HEADER + length > segmentBytes) {
+            throw new IllegalArgumentException("WAL record of " + length + " bytes does not fit in a "
+                    + segmentBytes + "-byte segment");
+        }
+        if (segment.remaining() < FRAME_HEADER + length) {
+            roll();
+        }
+        crc.reset();
+        crc.update(body.duplicate());
+        segment.putInt(length);
+        segment.putInt((int) crc.getValue());
+        segment.put(body);
+    }
+
+    /**
+     * Makes the records appended so far durable if syncing is on; called once per store operation,
+     * so one sync covers a whole consumer batch.
+     */
+    void commit() {
+        int position = segment.position();
+        if (syncOnCommit && position > syncedUpTo) {
+            segment.force(syncedUpTo, position - syncedUpTo);
+        }
+        syncedUpTo = position;
+    }
+
+    /**
+     * Continues in a new segment.
+     *
+     * @return the new segment's index; a snapshot taken now covers every segment before it
+     */
+    long roll() throws IOException {
+        commit();
+        openSegment(segmentIndex + 1);
+        return segmentIndex;
+    }
+
+    /**
+     * Writes a snapshot of everything before segment {@code firstSegment} and deletes the
+     * segments and snapshots it replaces. The file is synced and renamed into place, so a
+     * crash leaves either the old snapshot or the new one.
+     */
+    void writeSnapshot(long firstSegment, List<byte[]> entries) throws IOException {
+        Path target = dir.resolve(name("snapshot-", firstSegment, ".bin"));
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(firstSegment);
+            out.writeInt(entries.size());
+            for (byte[] entry : entries) {
+                out.writeInt(entry.length);
+                out.write(entry);
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path path : list("snapshot-", ".bin")) {
+            if (index(path, "snapshot-", ".bin") < firstSegment) {
+                Files.delete(path);
+            }
+        }
+        for (Path path : list("wal-", ".log")) {
+            if (index(path, "wal-", ".log") < firstSegment) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private long readSnapshot(Path path, Consumer<ByteBuffer> entries) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+        CRC32C checksum = new CRC32C();
+        checksum.update(in.array(), 0, Math.max(0, in.limit() - Integer.BYTES));
+        if (in.limit() < 24 || in.getInt(in.limit() - Integer.BYTES) != (int) checksum.getValue()
+                || in.getInt() != SNAPSHOT_MAGIC || in.getInt() != SNAPSHOT_VERSION) {
+            // The segments it replaced are gone, so there is nothing sound to fall back to
+            throw new IllegalStateException("Corrupt job store snapshot " + path);
+        }
+        long firstSegment = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int length = in.getInt();
+            entries.accept(in.slice(in.position(), length));
+            in.position(in.position() + length);
+        }
+        LOGGER.info("Loaded job store snapshot {} ({} jobs)", path.getFileName(), count);
+        return firstSegment;
+    }
+
+    private void replaySegment(Path path, Consumer<ByteBuffer> records) throws IOException {
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int replayed = 0;
+        while (in.remaining() >= FRAME_HEADER) {
+            int length = in.getInt();
+            if (length == 0) {
+                break;
+            }
+            int expected = in.getInt();
+            if (length < 0 || length > in.remaining()) {
+                LOGGER.warn("Torn record at offset {} of {}; ignoring the rest of the segment",
+                        in.position() - FRAME_HEADER, path.getFileName());
+                break;
+            }
+            ByteBuffer body = in.slice(in.position(), length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != expected) {
+                LOGGER.warn("Checksum mismatch at offset {} of {}; ignoring the rest of the segment",
+                        in.position() - FRAME_HEADER, path.getFileName());
+                break;
+            }
+            records.accept(body);
+            in.position(in.position() + length);
+            replayed++;
+        }
+        LOGGER.info("Replayed {} records from {}", replayed, path.getFileName());
+    }
+
+    private void openSegment(long index) throws IOException {
+        Path path = dir.resolve(name("wal-", index, ".log"));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segmentIndex = index;
+        syncedUpTo = 0;
+    }
+
+    private Path latest(String prefix, String suffix) throws IOException {
+        List<Path> paths = list(prefix, suffix);
+        return paths.isEmpty() ? null : paths.get(paths.size() - 1);
+    }
+
+    // Sorted by index; names are zero-padded, so by name
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return new ArrayList<>(files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }).sorted().toList());
+        }
+    }
+
+    private static long index(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+    }
+
+    private static String name(String prefix, long index, String suffix) {
+        return String.format("%s%016d%s", prefix, index, suffix);
+    }
+}
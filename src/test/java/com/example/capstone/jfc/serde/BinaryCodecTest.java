@@ -0,0 +1,107 @@
+package com.example.capstone.jfc.serde;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCodecTest {
+
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    @Test
+    void jobRoundTrip() {
+        JobMessage job = new JobMessage("job-1", "tool-a", "{\"data\":\"héllo\"}", -3, 7);
+
+        byte[] encoded = BinaryCodec.encode(job, 0);
+
+        assertTrue(BinaryCodec.isBinary(encoded));
+        assertEquals(job, BinaryCodec.decode(encoded, NO_LIMIT));
+    }
+
+    @Test
+    void jobWithNullsRoundTrip() {
+        JobMessage job = new JobMessage(null, "tool-a", null, 0, 0);
+
+        assertEquals(job, BinaryCodec.decode(BinaryCodec.encode(job, 0), NO_LIMIT));
+    }
+
+    @Test
+    void largePayloadIsDeflatedAndInflatedBack() {
+        JobMessage job = new JobMessage("job-1", "tool-a", "x".repeat(10_000), 1, 2);
+
+        byte[] encoded = BinaryCodec.encode(job, 1024);
+
+        assertTrue(encoded.length < 1000);
+        assertEquals(job, BinaryCodec.decode(encoded, NO_LIMIT));
+    }
+
+    @Test
+    void statusRoundTrip() {
+        for (StatusMessage status : new StatusMessage[]{
+                StatusMessage.of("job-1", "tool-a", JobStatus.SUCCESS, 3),
+                StatusMessage.heartbeat("job-1", "tool-a", 3),
+                new StatusMessage("job-1", null, "SOMETHING_NEW", 0),
+                new StatusMessage("job-1", "tool-a", null, 0)}) {
+            assertEquals(status, BinaryCodec.decode(BinaryCodec.encode(status), NO_LIMIT));
+        }
+    }
+
+    @Test
+    void v1RecordsDecodeWithoutDispatchEpoch() {
+        byte[] v2 = BinaryCodec.encode(StatusMessage.of("job-1", "tool-a", JobStatus.FAIL, 5));
+        // v1 is v2 without the trailing epoch varint (a single byte for small values)
+        byte[] v1 = Arrays.copyOf(v2, v2.length - 1);
+        v1[1] = 1;
+
+        assertEquals(StatusMessage.of("job-1", "tool-a", JobStatus.FAIL, 0), BinaryCodec.decode(v1, NO_LIMIT));
+    }
+
+    @Test
+    void trailingBytesFromNewerWritersAreIgnored() {
+        JobMessage job = new JobMessage("job-1", "tool-a", "payload", 4, 1);
+        byte[] encoded = BinaryCodec.encode(job, 0);
+        byte[] extended = Arrays.copyOf(encoded, encoded.length + 3);
+
+        assertEquals(job, BinaryCodec.decode(extended, NO_LIMIT));
+    }
+
+    @Test
+    void negativeLengthIsRejected() {
+        // jobId length varint of 0xFFFFFFFF, i.e. a length of -2
+        byte[] record = {BinaryCodec.MAGIC, BinaryCodec.VERSION, BinaryCodec.TYPE_JOB,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+
+        assertThrows(SerializationException.class, () -> BinaryCodec.decode(record, NO_LIMIT));
+    }
+
+    @Test
+    void truncatedRecordIsRejected() {
+        byte[] encoded = BinaryCodec.encode(new JobMessage("job-1", "tool-a", "payload", 0), 0);
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 4);
+
+        assertThrows(SerializationException.class, () -> BinaryCodec.decode(truncated, NO_LIMIT));
+    }
+
+    @Test
+    void inflatedSizeIsCapped() {
+        byte[] encoded = BinaryCodec.encode(new JobMessage("job-1", "tool-a", "x".repeat(100_000), 0), 1024);
+
+        SerializationException e = assertThrows(SerializationException.class,
+                () -> BinaryCodec.decode(encoded, 64 * 1024));
+        assertTrue(e.getMessage().contains("inflates beyond"));
+        assertNotNull(BinaryCodec.decode(encoded, 100_000));
+    }
+
+    @Test
+    void unknownTypeIsRejected() {
+        byte[] record = {BinaryCodec.MAGIC, BinaryCodec.VERSION, 9};
+
+        assertThrows(SerializationException.class, () -> BinaryCodec.decode(record, NO_LIMIT));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.capstone.jfc.serde;
+
+import com.example.capstone.jfc.model.JobMessage;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfcDeserializerTest {
+
+    private final JfcDeserializer deserializer = new JfcDeserializer();
+
+    @Test
+    void readsBothFormats() {
+        JobMessage job = new JobMessage("job-1", "tool-a", "{\"n\":1}", 2, 3);
+        StatusMessage status = StatusMessage.of("job-1", "tool-a", JobStatus.SUCCESS, 3);
+
+        for (String format : new String[]{"binary", "json"}) {
+            JfcSerializer serializer = new JfcSerializer(format, 0);
+            byte[] jobBytes = serializer.serialize("t", job);
+            byte[] statusBytes = serializer.serialize("t", status);
+
+            assertEquals(format.equals("binary"), BinaryCodec.isBinary(jobBytes), format);
+            assertEquals(job, deserializer.deserialize("t", jobBytes), format);
+            assertEquals(status, deserializer.deserialize("t", statusBytes), format);
+        }
+    }
+
+    @Test
+    void jsonWithoutNewerFieldsDefaultsThem() {
+        byte[] job = "{\"jobId\":\"job-1\",\"toolId\":\"tool-a\",\"payload\":\"p\"}".getBytes(StandardCharsets.UTF_8);
+        byte[] status = "{\"jobId\":\"job-1\",\"toolId\":\"tool-a\",\"status\":\"FAIL\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(new JobMessage("job-1", "tool-a", "p", 0, 0), deserializer.deserialize("t", job));
+        assertEquals(new StatusMessage("job-1", "tool-a", "FAIL", 0), deserializer.deserialize("t", status));
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(deserializer.deserialize("t", null));
+    }
+
+    @Test
+    void rejectsWhatIsNeitherFormat() {
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("t", "[1, 2]".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("t", "{not json".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void maxInflatedBytesIsConfigurable() {
+        byte[] record = new JfcSerializer("binary", 1024)
+                .serialize("t", new JobMessage("job-1", "tool-a", "x".repeat(50_000), 0));
+
+        assertNotNull(deserializer.deserialize("t", record));
+        deserializer.configure(Map.of(JfcDeserializer.MAX_INFLATED_CONFIG, "10000"), false);
+        assertThrows(SerializationException.class, () -> deserializer.deserialize("t", record));
+    }
+}
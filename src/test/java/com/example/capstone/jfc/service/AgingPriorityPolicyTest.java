@@ -0,0 +1,68 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AgingPriorityPolicyTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    // One priority level per minute of waiting
+    private final AgingPriorityPolicy policy = new AgingPriorityPolicy(60_000);
+
+    @Test
+    void higherPriorityGoesFirstAmongJobsOfTheSameAge() {
+        QueuedJob low = job("low", 1, T0);
+        QueuedJob high = job("high", 5, T0);
+
+        assertTrue(policy.jobOrder().compare(high, low) < 0);
+    }
+
+    @Test
+    void waitingMakesUpForPriority() {
+        QueuedJob old = job("old", 1, T0);
+        QueuedJob fresh = job("fresh", 5, T0.plusMinutes(10));
+
+        // Ten minutes older outweighs four levels
+        assertTrue(policy.jobOrder().compare(old, fresh) < 0);
+        // Three minutes does not
+        assertTrue(policy.jobOrder().compare(job("recent", 1, T0.plusMinutes(7)), fresh) > 0);
+    }
+
+    @Test
+    void equalEffectivePriorityFallsBackToAge() {
+        QueuedJob older = job("older", 1, T0);
+        QueuedJob newer = job("newer", 2, T0.plusMinutes(1));
+
+        assertTrue(policy.jobOrder().compare(older, newer) < 0);
+    }
+
+    @Test
+    void orderIsTotalSoNoJobIsLostInTheQueue() {
+        List<QueuedJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            jobs.add(job("job-" + i, i % 5, T0.plusSeconds(i * 7L)));
+        }
+        TreeSet<QueuedJob> queue = new TreeSet<>(policy.jobOrder());
+
+        queue.addAll(jobs);
+
+        assertEquals(50, queue.size());
+    }
+
+    @Test
+    void rejectsANonPositiveInterval() {
+        assertThrows(IllegalArgumentException.class, () -> new AgingPriorityPolicy(0));
+    }
+
+    private static QueuedJob job(String jobId, int priority, LocalDateTime created) {
+        return new QueuedJob(jobId, "A", priority, created);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.capstone.jfc.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdConcurrencyLimiterTest {
+
+    private static final String TOOL = "tool-a";
+
+    @Test
+    void startsAtTheInitialLimitWithinTheCeiling() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 0.5, 0.5, 0);
+
+        assertEquals(10, limiter.limit(TOOL, 100));
+        assertEquals(4, limiter.limit(TOOL, 4));
+        assertEquals(0, limiter.limit(TOOL, 0));
+    }
+
+    @Test
+    void growsByOneWhileTheLimitIsUsed() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 0.5, 0.5, 0);
+        limiter.limit(TOOL, 100);
+
+        limiter.onCompleted(TOOL, now(), 100, false, 10);
+        limiter.onCompleted(TOOL, now(), 100, false, 11);
+        assertEquals(12, limiter.limit(TOOL, 100));
+
+        // Less than half the limit in flight says nothing about more
+        limiter.onCompleted(TOOL, now(), 100, false, 2);
+        assertEquals(12, limiter.limit(TOOL, 100));
+    }
+
+    @Test
+    void growthStopsAtTheCeiling() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(3, 1, 0.5, 0.5, 0);
+        limiter.limit(TOOL, 4);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onCompleted(TOOL, now(), 100, false, 4);
+        }
+
+        assertEquals(4, limiter.limit(TOOL, 4));
+        // Raising the ceiling does not hand out the growth that was capped
+        assertEquals(4, limiter.limit(TOOL, 100));
+    }
+
+    @Test
+    void expiredLeasesCutTheLimitDownToTheMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(16, 2, 0.5, 0.5, 0);
+        limiter.limit(TOOL, 100);
+
+        limiter.onDropped(TOOL);
+        assertEquals(8, limiter.limit(TOOL, 100));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onDropped(TOOL);
+        }
+        assertEquals(2, limiter.limit(TOOL, 100));
+    }
+
+    @Test
+    void sustainedFailuresCutTheLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(16, 1, 0.2, 0.5, 0);
+        limiter.limit(TOOL, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onCompleted(TOOL, now() + 1_000, 100, true, 1);
+        }
+
+        assertTrue(limiter.limit(TOOL, 100) < 16);
+    }
+
+    @Test
+    void highLatencyCutsOncePerRoundTrip() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(16, 1, 0.5, 0.5, 200);
+        limiter.limit(TOOL, 100);
+        long dispatchedBeforeCut = now() - 1_000;
+
+        limiter.onCompleted(TOOL, now(), 1_000, false, 16);
+        assertEquals(8, limiter.limit(TOOL, 100));
+
+        // Dispatched under the old limit; it cannot cut the new one
+        limiter.onCompleted(TOOL, dispatchedBeforeCut, 1_000, false, 8);
+        assertEquals(8, limiter.limit(TOOL, 100));
+
+        limiter.onCompleted(TOOL, now() + 1_000, 1_000, false, 8);
+        assertEquals(4, limiter.limit(TOOL, 100));
+    }
+
+    @Test
+    void toolsAreIndependent() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(10, 1, 0.5, 0.5, 0);
+
+        limiter.onDropped(TOOL);
+
+        assertEquals(5, limiter.limit(TOOL, 100));
+        assertEquals(10, limiter.limit("tool-b", 100));
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.capstone.jfc.service;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClusterOwnershipTest {
+
+    private static final String TOPIC = "job-ingestion";
+
+    @Test
+    void ownsEverythingWithClusteringOff() {
+        ClusterOwnership ownership = new ClusterOwnership(event -> {
+        });
+
+        assertTrue(ownership.owns("any-tool"));
+        assertEquals(8, ownership.localShare(8));
+    }
+
+    @Test
+    void sharesAddUpToTheLimit() {
+        ClusterOwnership first = instance(3, 0, 1);
+        ClusterOwnership second = instance(3, 2);
+
+        assertEquals(8, first.localShare(8) + second.localShare(8));
+        assertEquals(6, first.localShare(8));
+        assertEquals(2, second.localShare(8));
+    }
+
+    @Test
+    void remainderIsSpreadOverInstances() {
+        ClusterOwnership[] instances = {instance(3, 0), instance(3, 1), instance(3, 2)};
+
+        assertEquals(2, instances[0].localShare(5));
+        assertEquals(2, instances[1].localShare(5));
+        assertEquals(1, instances[2].localShare(5));
+    }
+
+    @Test
+    void everyOwnerGetsASlot() {
+        // Partitions 8-11 get nothing of a limit of 5, but their tools must still dispatch
+        assertEquals(4, instance(12, 0, 1, 2, 3).localShare(5));
+        assertEquals(1, instance(12, 4, 5, 6, 7).localShare(5));
+        assertEquals(1, instance(12, 8, 9, 10, 11).localShare(5));
+    }
+
+    @Test
+    void nothingOwnedMeansNoShare() {
+        ClusterOwnership ownership = instance(3);
+
+        assertEquals(0, ownership.localShare(8));
+        assertFalse(ownership.owns("any-tool"));
+    }
+
+    private static ClusterOwnership instance(int partitionCount, int... owned) {
+        ClusterOwnership ownership = new ClusterOwnership(event -> {
+        });
+        ReflectionTestUtils.setField(ownership, "enabled", true);
+        ReflectionTestUtils.setField(ownership, "instanceId", "test");
+        ReflectionTestUtils.setField(ownership, "ingestionTopic", TOPIC);
+
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        List<PartitionInfo> partitions = IntStream.range(0, partitionCount)
+                .mapToObj(partition -> new PartitionInfo(TOPIC, partition, null, null, null)).toList();
+        when(consumer.partitionsFor(TOPIC)).thenReturn(partitions);
+        List<TopicPartition> assigned = IntStream.of(owned).mapToObj(partition -> new TopicPartition(TOPIC, partition)).toList();
+        if (assigned.isEmpty()) {
+            ReflectionTestUtils.setField(ownership, "partitionCount", partitionCount);
+        } else {
+            ownership.onPartitionsAssigned(consumer, assigned);
+        }
+        assertEquals(Set.copyOf(IntStream.of(owned).boxed().toList()), ownership.ownedPartitions());
+        return ownership;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.repository.JobRepository;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DispatchIndexTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final long LEASE = 1_000;
+
+    private final DispatchIndex index = new DispatchIndex(mock(JobRepository.class), new StrictPriorityPolicy(),
+            new ClusterOwnership(event -> {
+            }));
+
+    @Test
+    void claimStopsAtEachToolsLimit() {
+        enqueue("A", 5, 0);
+        enqueue("B", 5, 0);
+
+        List<QueuedJob> claimed = index.claim(Map.of("A", 2, "B", 1), 100, LEASE);
+
+        assertEquals(3, claimed.size());
+        assertEquals(2, index.inFlight("A"));
+        assertEquals(1, index.inFlight("B"));
+        assertEquals(3, index.queued("A"));
+        assertEquals(4, index.queued("B"));
+        // Saturated tools get nothing more until a slot is released
+        assertTrue(index.claim(Map.of("A", 2, "B", 1), 100, LEASE).isEmpty());
+    }
+
+    @Test
+    void claimStopsAtTheGlobalLimit() {
+        enqueue("A", 5, 0);
+        enqueue("B", 5, 0);
+
+        assertEquals(3, index.claim(Map.of("A", 10, "B", 10), 3, LEASE).size());
+        assertEquals(3, index.globalInFlight());
+        assertTrue(index.claim(Map.of("A", 10, "B", 10), 3, LEASE).isEmpty());
+        assertEquals(2, index.claim(Map.of("A", 10, "B", 10), 5, LEASE).size());
+    }
+
+    @Test
+    void toolsWithoutALimitAreSkipped() {
+        enqueue("A", 2, 0);
+        enqueue("B", 2, 0);
+
+        List<QueuedJob> claimed = index.claim(Map.of("A", 10), 100, LEASE);
+
+        assertEquals(Set.of("A"), tools(claimed));
+        assertEquals(2, index.queued("B"));
+    }
+
+    @Test
+    void higherPriorityIsServedFirstAcrossTools() {
+        index.enqueue(job("a-1", "A", 1, T0));
+        index.enqueue(job("b-1", "B", 5, T0.plusMinutes(1)));
+        index.enqueue(job("a-2", "A", 9, T0.plusMinutes(2)));
+
+        List<QueuedJob> claimed = index.claim(Map.of("A", 10, "B", 10), 100, LEASE);
+
+        assertEquals(List.of("a-2", "b-1", "a-1"), ids(claimed));
+    }
+
+    @Test
+    void olderJobsGoFirstWithinAPriority() {
+        index.enqueue(job("late", "A", 0, T0.plusMinutes(5)));
+        index.enqueue(job("early", "A", 0, T0));
+
+        assertEquals(List.of("early"), ids(index.claim(Map.of("A", 10), 1, LEASE)));
+    }
+
+    @Test
+    void enqueueIgnoresJobsAlreadyQueuedOrInFlight() {
+        QueuedJob job = job("a-1", "A", 0, T0);
+        index.enqueue(job);
+        index.enqueue(job);
+        assertEquals(1, index.queued("A"));
+
+        index.claim(Map.of("A", 10), 100, LEASE);
+        index.enqueue(job);
+
+        assertEquals(0, index.queued("A"));
+        assertEquals(1, index.inFlight("A"));
+    }
+
+    @Test
+    void refusedToolIsSkippedForTheCycle() {
+        enqueue("A", 3, 5);
+        enqueue("B", 3, 0);
+        Set<String> refused = Set.of("A");
+
+        List<QueuedJob> claimed = index.claim(Map.of("A", 10, "B", 10), 100, LEASE, throttle(refused, false));
+
+        assertEquals(Set.of("B"), tools(claimed));
+        assertEquals(3, index.queued("A"));
+    }
+
+    @Test
+    void exhaustedThrottleEndsTheCycle() {
+        enqueue("A", 3, 5);
+        enqueue("B", 3, 0);
+        Set<String> refused = Set.of("A");
+
+        List<QueuedJob> claimed = index.claim(Map.of("A", 10, "B", 10), 100, LEASE, throttle(refused, true));
+
+        assertTrue(claimed.isEmpty());
+        assertEquals(6, index.globalQueued());
+    }
+
+    @Test
+    void releaseFreesTheSlot() {
+        enqueue("A", 2, 0);
+        QueuedJob first = index.claim(Map.of("A", 1), 100, LEASE).get(0);
+
+        index.release(first.jobId());
+        index.release(first.jobId());
+
+        assertEquals(0, index.inFlight("A"));
+        assertNull(index.dispatchedAt(first.jobId()));
+        assertEquals(1, index.claim(Map.of("A", 1), 100, LEASE).size());
+    }
+
+    @Test
+    void requeuedJobGoesBackToItsPlace() {
+        index.enqueue(job("a-1", "A", 0, T0));
+        index.enqueue(job("a-2", "A", 0, T0.plusMinutes(1)));
+        index.claim(Map.of("A", 1), 100, LEASE);
+
+        assertTrue(index.requeue("a-1"));
+        assertFalse(index.requeue("a-1"));
+
+        assertEquals(0, index.inFlight("A"));
+        assertEquals(List.of("a-1"), ids(index.claim(Map.of("A", 1), 100, LEASE)));
+    }
+
+    @Test
+    void expiredLeasesFreeTheirSlots() {
+        enqueue("A", 3, 0);
+        List<QueuedJob> claimed = index.claim(Map.of("A", 10), 100, 1_000);
+        String renewed = claimed.get(0).jobId();
+
+        assertTrue(index.renewLease(renewed, 0, 5_000));
+        assertTrue(index.expireLeases(999).isEmpty());
+
+        List<QueuedJob> expired = index.expireLeases(2_000);
+
+        assertEquals(2, expired.size());
+        assertFalse(ids(expired).contains(renewed));
+        assertEquals(1, index.inFlight("A"));
+        assertFalse(index.renewLease(expired.get(0).jobId(), 0, 5_000));
+        assertEquals(List.of(renewed), ids(index.expireLeases(5_000)));
+        assertEquals(0, index.globalInFlight());
+    }
+
+    @Test
+    void onlyTheCurrentDispatchRenewsItsLease() {
+        enqueue("A", 1, 0);
+        String jobId = index.claim(Map.of("A", 10), 100, 1_000).get(0).jobId();
+
+        // Nothing has been sent yet, so a heartbeat from an earlier dispatch cannot be ours
+        assertFalse(index.renewLease(jobId, 3, 5_000));
+
+        index.setDispatchEpoch(jobId, 4);
+        assertFalse(index.renewLease(jobId, 3, 5_000));
+        assertTrue(index.expireLeases(999).isEmpty());
+        assertTrue(index.renewLease(jobId, 4, 5_000));
+        assertTrue(index.renewLease(jobId, 0, 6_000));
+        assertTrue(index.expireLeases(5_999).isEmpty());
+    }
+
+    @Test
+    void releasedJobsLeaveNoLease() {
+        enqueue("A", 1, 0);
+        QueuedJob job = index.claim(Map.of("A", 10), 100, 1_000).get(0);
+
+        index.release(job.jobId());
+
+        assertTrue(index.expireLeases(Long.MAX_VALUE).isEmpty());
+    }
+
+    private void enqueue(String toolId, int count, int priority) {
+        for (int i = 0; i < count; i++) {
+            index.enqueue(job(toolId + "-" + i, toolId, priority, T0.plusSeconds(i)));
+        }
+    }
+
+    private static QueuedJob job(String jobId, String toolId, int priority, LocalDateTime created) {
+        return new QueuedJob(jobId, toolId, priority, created);
+    }
+
+    private static DispatchIndex.Throttle throttle(Set<String> refused, boolean exhaustOnRefusal) {
+        return new DispatchIndex.Throttle() {
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAcquire(String toolId) {
+                if (refused.contains(toolId)) {
+                    exhausted = exhaustOnRefusal;
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public boolean exhausted() {
+                return exhausted;
+            }
+        };
+    }
+
+    private static List<String> ids(List<QueuedJob> jobs) {
+        return jobs.stream().map(QueuedJob::jobId).toList();
+    }
+
+    private static Set<String> tools(List<QueuedJob> jobs) {
+        return new HashSet<>(jobs.stream().map(QueuedJob::toolId).toList());
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.capstone.jfc.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringBloomFilterTest {
+
+    @Test
+    void addedKeysAreFound() {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(10_000, 0.01, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("job-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("job-" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsNearTheTarget() {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(10_000, 0.01, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("job-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // 1% per generation, and lookups check two of them
+        assertTrue(falsePositives < 3_000, falsePositives + " false positives");
+    }
+
+    @Test
+    void keysAreRememberedForAtLeastOneWindow() throws InterruptedException {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(1_000, 0.01, 300);
+        filter.put("job-1");
+
+        Thread.sleep(350);
+
+        // Rotated once: job-1 is in the previous generation
+        assertTrue(filter.mightContain("job-1"));
+    }
+
+    @Test
+    void keysAreForgottenAfterTwoWindows() throws InterruptedException {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(1_000, 0.01, 50);
+        filter.put("job-1");
+
+        Thread.sleep(150);
+
+        assertFalse(filter.mightContain("job-1"));
+    }
+
+    @Test
+    void sizeFollowsExpectedKeysAndRate() {
+        ExpiringBloomFilter small = new ExpiringBloomFilter(1_000, 0.01, 60_000);
+        ExpiringBloomFilter large = new ExpiringBloomFilter(100_000, 0.01, 60_000);
+
+        // About 9.6 bits per key at 1%, times two generations
+        assertEquals(2 * 1_000 * 9.6 / 8, small.sizeInBytes(), 64);
+        assertTrue(large.sizeInBytes() > 90 * small.sizeInBytes());
+    }
+}
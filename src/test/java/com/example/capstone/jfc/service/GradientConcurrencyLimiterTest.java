@@ -0,0 +1,71 @@
+package com.example.capstone.jfc.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimiterTest {
+
+    private static final String TOOL = "tool-a";
+    private static final int CEILING = 1_000;
+
+    @Test
+    void growsWhileLatencyIsSteady() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 0.5, 0.5, 2.0, 1.0);
+
+        complete(limiter, 100, 1);
+
+        // limit + sqrt(limit) with the whole step applied
+        assertEquals(13, limiter.limit(TOOL, CEILING));
+    }
+
+    @Test
+    void smoothingAppliesPartOfTheStep() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(100, 1, 0.5, 0.5, 2.0, 0.2);
+
+        complete(limiter, 100, 1);
+
+        assertEquals(102, limiter.limit(TOOL, CEILING));
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 0.5, 0.5, 1.5, 0.5);
+        complete(limiter, 100, 20);
+        int peak = limiter.limit(TOOL, CEILING);
+
+        complete(limiter, 2_000, 20);
+
+        assertTrue(peak > 10, "grew to " + peak);
+        assertTrue(limiter.limit(TOOL, CEILING) < peak / 2, "shrank to " + limiter.limit(TOOL, CEILING));
+    }
+
+    @Test
+    void idleToolKeepsItsLimit() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 0.5, 0.5, 2.0, 1.0);
+        limiter.limit(TOOL, CEILING);
+
+        limiter.onCompleted(TOOL, System.currentTimeMillis(), 100, false, 1);
+
+        assertEquals(10, limiter.limit(TOOL, CEILING));
+    }
+
+    @Test
+    void neverBelowTheMinimum() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 6, 0.5, 0.5, 1.0, 1.0);
+        complete(limiter, 10, 5);
+
+        complete(limiter, 100_000, 50);
+
+        // Left alone, halving plus the square root settles at 4
+        assertEquals(6, limiter.limit(TOOL, CEILING));
+    }
+
+    // Completions with the tool using its whole limit
+    private static void complete(GradientConcurrencyLimiter limiter, long latencyMs, int count) {
+        for (int i = 0; i < count; i++) {
+            int inFlight = limiter.limit(TOOL, CEILING);
+            limiter.onCompleted(TOOL, System.currentTimeMillis(), latencyMs, false, inFlight);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.capstone.jfc.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final List<TimerWheel<?>> wheels = new ArrayList<>();
+
+    @AfterEach
+    void stopWheels() {
+        wheels.forEach(TimerWheel::stop);
+    }
+
+    @Test
+    void firesNoEarlierThanTheDelay() throws InterruptedException {
+        Map<String, Long> firedAt = new ConcurrentHashMap<>();
+        CountDownLatch fired = new CountDownLatch(3);
+        TimerWheel<String> wheel = start(8, items -> items.forEach(item -> {
+            firedAt.put(item, System.nanoTime());
+            fired.countDown();
+        }));
+
+        long scheduledAt = System.nanoTime();
+        wheel.schedule("now", 0);
+        wheel.schedule("soon", 30);
+        // Beyond one revolution of 8 ticks, so it waits out extra rounds in its bucket
+        wheel.schedule("later", 250);
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        assertTrue(firedAt.get("soon") - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertTrue(firedAt.get("later") - scheduledAt >= TimeUnit.MILLISECONDS.toNanos(250));
+        assertTrue(firedAt.get("now") < firedAt.get("soon"));
+        assertTrue(firedAt.get("soon") < firedAt.get("later"));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void itemsDueInTheSameTickFireAsOneBatch() throws InterruptedException {
+        BlockingQueue<List<Integer>> batches = new LinkedBlockingQueue<>();
+        TimerWheel<Integer> wheel = new TimerWheel<>("test-wheel", TICK_MS, 16, batches::add);
+        wheels.add(wheel);
+        // Scheduled before the wheel turns, so all are due in its first tick
+        for (int i = 0; i < 100; i++) {
+            wheel.schedule(i, 0);
+        }
+        wheel.start();
+
+        List<Integer> batch = batches.poll(5, TimeUnit.SECONDS);
+
+        assertNotNull(batch);
+        assertEquals(100, batch.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void failingCallbackDoesNotStopTheWheel() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        TimerWheel<String> wheel = start(8, items -> {
+            if (items.contains("bad")) {
+                throw new IllegalStateException("callback failed");
+            }
+            fired.countDown();
+        });
+
+        wheel.schedule("bad", 0);
+        wheel.schedule("good", 50);
+
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sizeCountsPendingItems() {
+        TimerWheel<String> wheel = start(8, items -> {
+        });
+
+        wheel.schedule("a", 60_000);
+        wheel.schedule("b", 60_000);
+
+        assertEquals(2, wheel.size());
+    }
+
+    private <T> TimerWheel<T> start(int wheelSize, Consumer<List<T>> onExpired) {
+        TimerWheel<T> wheel = new TimerWheel<>("test-wheel", TICK_MS, wheelSize, onExpired);
+        wheel.start();
+        wheels.add(wheel);
+        return wheel;
+    }
+}
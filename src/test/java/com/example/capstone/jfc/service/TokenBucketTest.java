@@ -0,0 +1,74 @@
+package com.example.capstone.jfc.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void startsFullAndRefusesPastTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(INTERVAL, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void refillsAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        long wait = bucket.tryAcquire(INTERVAL / 2);
+
+        assertEquals(INTERVAL / 2, wait);
+        assertEquals(0, bucket.tryAcquire(INTERVAL / 2 + wait));
+        assertTrue(bucket.tryAcquire(INTERVAL / 2 + wait) > 0);
+    }
+
+    @Test
+    void idleTimeBanksNoMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        long later = TimeUnit.SECONDS.toNanos(60);
+
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertTrue(bucket.tryAcquire(later) > 0);
+    }
+
+    @Test
+    void releaseReturnsAToken() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0) > 0);
+
+        bucket.release(0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+    }
+
+    @Test
+    void releaseOnAFullBucketIsIgnored() {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+
+        bucket.release(0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0) > 0);
+    }
+
+    @Test
+    void settingsAreCompared() {
+        TokenBucket bucket = new TokenBucket(5, 0, 0);
+
+        assertTrue(bucket.hasSettings(5, 1));
+        assertFalse(bucket.hasSettings(5, 2));
+        assertFalse(bucket.hasSettings(6, 1));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.capstone.jfc.service;
+
+import com.example.capstone.jfc.model.ToolConfigEntity;
+import com.example.capstone.jfc.repository.JobRepository;
+import com.example.capstone.jfc.service.DispatchIndex.QueuedJob;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WeightedFairQueuingPolicyTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Map<String, Integer> LIMITS = Map.of("A", 1_000, "B", 1_000);
+
+    private final ToolConfigRegistry registry = mock(ToolConfigRegistry.class);
+    private final DispatchIndex index = new DispatchIndex(mock(JobRepository.class),
+            new WeightedFairQueuingPolicy(registry), new ClusterOwnership(event -> {
+            }));
+
+    @Test
+    void slotsAreSharedByWeight() {
+        weight("A", 3);
+        weight("B", 1);
+        enqueue("A", 100, 0);
+        enqueue("B", 100, 9);
+
+        List<QueuedJob> claimed = index.claim(LIMITS, 40, Long.MAX_VALUE);
+
+        // B's higher priorities do not buy it more than its share
+        assertEquals(30, count(claimed, "A"));
+        assertEquals(10, count(claimed, "B"));
+    }
+
+    @Test
+    void missingWeightCountsAsOne() {
+        enqueue("A", 10, 0);
+        enqueue("B", 10, 0);
+
+        List<QueuedJob> claimed = index.claim(LIMITS, 10, Long.MAX_VALUE);
+
+        assertEquals(5, count(claimed, "A"));
+        assertEquals(5, count(claimed, "B"));
+    }
+
+    @Test
+    void idleToolCannotBankCredit() {
+        enqueue("A", 100, 0);
+        for (int i = 0; i < 5; i++) {
+            index.claim(LIMITS, index.globalInFlight() + 10, Long.MAX_VALUE);
+        }
+
+        // B shows up after A has had 50 jobs alone; it gets its fair half, not the next 50
+        enqueue("B", 100, 0);
+        List<QueuedJob> claimed = index.claim(LIMITS, index.globalInFlight() + 20, Long.MAX_VALUE);
+
+        assertEquals(10, count(claimed, "A"), 1);
+        assertEquals(10, count(claimed, "B"), 1);
+    }
+
+    @Test
+    void withinAToolPriorityDecides() {
+        index.enqueue(new QueuedJob("a-low", "A", 1, T0));
+        index.enqueue(new QueuedJob("a-high", "A", 7, T0.plusMinutes(1)));
+
+        List<QueuedJob> claimed = index.claim(LIMITS, 1, Long.MAX_VALUE);
+
+        assertEquals("a-high", claimed.get(0).jobId());
+    }
+
+    private void weight(String toolId, int weight) {
+        ToolConfigEntity config = new ToolConfigEntity();
+        config.setToolId(toolId);
+        config.setSchedulingWeight(weight);
+        when(registry.get(toolId)).thenReturn(config);
+    }
+
+    private void enqueue(String toolId, int count, int priority) {
+        for (int i = 0; i < count; i++) {
+            index.enqueue(new QueuedJob(toolId + "-" + i, toolId, priority, T0.plusSeconds(i)));
+        }
+    }
+
+    private static int count(List<QueuedJob> jobs, String toolId) {
+        return (int) jobs.stream().filter(job -> job.toolId().equals(toolId)).count();
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.capstone.jfc.store;
+
+import com.example.capstone.jfc.model.JobEntity;
+import com.example.capstone.jfc.model.JobStatus;
+import com.example.capstone.jfc.model.StatusUpdate;
+import com.example.capstone.jfc.repository.JobBatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WalJobStoreTest {
+
+    private static final long RETAIN_FOREVER = Long.MAX_VALUE / 2;
+
+    @TempDir
+    Path dir;
+
+    private final JobBatchRepository repository = mock(JobBatchRepository.class);
+    private final List<WalJobStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        stores.forEach(WalJobStore::close);
+    }
+
+    @Test
+    void changesSurviveRestart() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        store.insertNewJobs(List.of(job("job-1"), job("job-2"), job("job-3")));
+        store.markInProgress(List.of("job-1", "job-2"), LocalDateTime.now().plusMinutes(1));
+        store.updateStatuses(List.of(new StatusUpdate("job-1", JobStatus.SUCCESS, 1)));
+
+        WalJobStore recovered = open(RETAIN_FOREVER);
+
+        assertEquals(3, recovered.size());
+        assertEquals(JobStatus.SUCCESS, status(recovered, "job-1"));
+        assertEquals(JobStatus.IN_PROGRESS, status(recovered, "job-2"));
+        assertEquals(1, recovered.findJobs(List.of("job-2")).get(0).getDispatchEpoch());
+        assertEquals(JobStatus.NEW, status(recovered, "job-3"));
+    }
+
+    @Test
+    void snapshotAndLaterLogAreBothRecovered() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        store.insertNewJobs(List.of(job("job-1"), job("job-2")));
+        store.snapshot();
+        store.insertNewJobs(List.of(job("job-3")));
+        store.transitionStatus(List.of("job-1"), JobStatus.NEW, JobStatus.FAIL);
+
+        WalJobStore recovered = open(RETAIN_FOREVER);
+
+        assertEquals(3, recovered.size());
+        assertEquals(JobStatus.FAIL, status(recovered, "job-1"));
+        assertEquals(JobStatus.NEW, status(recovered, "job-3"));
+        // Every open snapshots what it recovered, so only the latest snapshot is kept
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.filter(path -> path.getFileName().toString().startsWith("snapshot-")).count());
+        }
+    }
+
+    @Test
+    void changesAreWrittenBehind() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        store.insertNewJobs(List.of(job("job-1"), job("job-2")));
+        store.flush();
+
+        ArgumentCaptor<List<JobEntity>> inserts = listCaptor();
+        ArgumentCaptor<List<JobEntity>> states = listCaptor();
+        verify(repository).writeBehind(inserts.capture(), states.capture());
+        assertEquals(Set.of("job-1", "job-2"), ids(inserts.getValue()));
+        assertEquals(2, states.getValue().size());
+
+        clearInvocations(repository);
+        store.markInProgress(List.of("job-2"), LocalDateTime.now().plusMinutes(1));
+        store.flush();
+
+        verify(repository).writeBehind(inserts.capture(), states.capture());
+        assertTrue(inserts.getValue().isEmpty());
+        assertEquals(JobStatus.IN_PROGRESS, states.getValue().get(0).getStatus());
+        assertEquals(Set.of("job-2"), ids(states.getValue()));
+    }
+
+    @Test
+    void failedWriteBehindIsRetried() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        doThrow(new IllegalStateException("database down")).doNothing()
+                .when(repository).writeBehind(anyList(), anyList());
+        store.insertNewJobs(List.of(job("job-1")));
+
+        store.flush();
+        store.flush();
+
+        ArgumentCaptor<List<JobEntity>> inserts = listCaptor();
+        verify(repository, times(2)).writeBehind(inserts.capture(), anyList());
+        assertEquals(Set.of("job-1"), ids(inserts.getAllValues().get(1)));
+    }
+
+    @Test
+    void recoveredJobsAreWrittenBehindAgain() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        store.insertNewJobs(List.of(job("job-1")));
+        clearInvocations(repository);
+
+        open(RETAIN_FOREVER);
+
+        ArgumentCaptor<List<JobEntity>> inserts = listCaptor();
+        verify(repository, atLeastOnce()).writeBehind(inserts.capture(), anyList());
+        assertEquals(Set.of("job-1"), ids(inserts.getAllValues().get(0)));
+    }
+
+    @Test
+    void unfinishedJobsOnlyInTheDatabaseAreLoaded() throws IOException {
+        JobEntity known = job("job-db");
+        known.setStatus(JobStatus.IN_PROGRESS);
+        when(repository.findUnfinished(eq(""), anyInt())).thenReturn(List.of(known));
+
+        WalJobStore store = open(RETAIN_FOREVER);
+
+        assertEquals(JobStatus.IN_PROGRESS, status(store, "job-db"));
+    }
+
+    @Test
+    void staleStatusIsFenced() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+        store.insertNewJobs(List.of(job("job-1")));
+        store.markInProgress(List.of("job-1"), LocalDateTime.now().plusMinutes(1));
+        store.transitionStatus(List.of("job-1"), JobStatus.IN_PROGRESS, JobStatus.NEW);
+        store.markInProgress(List.of("job-1"), LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(List.of(), store.updateStatuses(List.of(new StatusUpdate("job-1", JobStatus.FAIL, 1))));
+        assertEquals(List.of("job-1"), store.updateStatuses(List.of(new StatusUpdate("job-1", JobStatus.SUCCESS, 2))));
+        assertEquals(JobStatus.SUCCESS, status(store, "job-1"));
+    }
+
+    @Test
+    void finishedJobsAreEvictedOnceWrittenBehind() throws Exception {
+        WalJobStore store = open(0);
+        store.insertNewJobs(List.of(job("job-1"), job("job-2")));
+        store.transitionStatus(List.of("job-1"), JobStatus.NEW, JobStatus.SUCCESS);
+        Thread.sleep(5); // retention is measured from the last change, in millis
+
+        store.flush();
+
+        assertEquals(1, store.size());
+        assertTrue(store.findJobs(List.of("job-1")).isEmpty());
+        assertEquals(1, open(0).size());
+    }
+
+    @Test
+    void evictedJobsAreFoundInTheDatabase() throws Exception {
+        WalJobStore store = open(0);
+        store.insertNewJobs(List.of(job("job-1")));
+        store.transitionStatus(List.of("job-1"), JobStatus.NEW, JobStatus.SUCCESS);
+        Thread.sleep(5);
+        store.flush();
+        when(repository.findExistingIds(List.of("job-1"))).thenReturn(Set.of("job-1"));
+
+        assertEquals(Set.of("job-1"), store.findExistingIds(List.of("job-1")));
+    }
+
+    @Test
+    void insertingDoesNotQueryTheDatabase() throws IOException {
+        WalJobStore store = open(RETAIN_FOREVER);
+
+        store.insertNewJobs(List.of(job("job-1"), job("job-2")));
+        store.insertNewJobs(List.of(job("job-1")));
+
+        assertEquals(2, store.size());
+        verify(repository, never()).findExistingIds(anyCollection());
+    }
+
+    private WalJobStore open(long retainFinishedMs) throws IOException {
+        WalJobStore store = new WalJobStore(repository, dir, 64 * 1024, false, 100, retainFinishedMs, 100);
+        store.open();
+        stores.add(store);
+        return store;
+    }
+
+    private static JobEntity job(String jobId) {
+        JobEntity job = new JobEntity();
+        job.setJobId(jobId);
+        job.setToolId("tool-a");
+        job.setPayload("{}");
+        job.setPriority(0);
+        job.setTimestampCreated(LocalDateTime.now());
+        return job;
+    }
+
+    private static JobStatus status(WalJobStore store, String jobId) {
+        return store.findJobs(List.of(jobId)).get(0).getStatus();
+    }
+
+    private static Set<String> ids(List<JobEntity> jobs) {
+        return Set.copyOf(jobs.stream().map(JobEntity::getJobId).toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<JobEntity>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.capstone.jfc.store;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedRecordsAreReplayedInOrder() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        append(wal, "a", "b", "c");
+        wal.commit();
+
+        List<String> records = new ArrayList<>();
+        open(new ArrayList<>(), records);
+
+        assertEquals(List.of("a", "b", "c"), records);
+    }
+
+    @Test
+    void recordsSpanSegments() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            written.add("record-" + i + "-" + "x".repeat(100));
+        }
+        append(wal, written.toArray(String[]::new));
+        wal.commit();
+
+        List<String> records = new ArrayList<>();
+        open(new ArrayList<>(), records);
+
+        assertTrue(segments().size() > 2);
+        assertEquals(written, records);
+    }
+
+    @Test
+    void tornTailIsDropped() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        append(wal, "first", "second", "third");
+        wal.commit();
+
+        // Flip a byte in the body of the last record, as a crash mid-write would leave it
+        Path segment = segments().get(0);
+        int lastBody = 3 * 8 + "first".length() + "second".length();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(lastBody);
+            file.write('X');
+        }
+
+        List<String> records = new ArrayList<>();
+        WriteAheadLog reopened = open(new ArrayList<>(), records);
+        assertEquals(List.of("first", "second"), records);
+
+        // Appends go to a fresh segment, so the torn one is never written over
+        append(reopened, "fourth");
+        reopened.commit();
+        records.clear();
+        open(new ArrayList<>(), records);
+        assertEquals(List.of("first", "second", "fourth"), records);
+    }
+
+    @Test
+    void truncatedLengthIsDropped() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        append(wal, "first", "second");
+        wal.commit();
+
+        // A length that runs past the end of the segment
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(8 + "first".length());
+            file.writeInt(SEGMENT_BYTES);
+        }
+
+        List<String> records = new ArrayList<>();
+        open(new ArrayList<>(), records);
+        assertEquals(List.of("first"), records);
+    }
+
+    @Test
+    void snapshotReplacesEarlierSegments() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        append(wal, "a", "b");
+        long firstSegment = wal.roll();
+        wal.writeSnapshot(firstSegment, List.of(bytes("image-1"), bytes("image-2")));
+        append(wal, "c");
+        wal.commit();
+
+        List<String> entries = new ArrayList<>();
+        List<String> records = new ArrayList<>();
+        open(entries, records);
+
+        assertEquals(List.of("image-1", "image-2"), entries);
+        assertEquals(List.of("c"), records);
+        assertEquals(1, files("snapshot-").size());
+    }
+
+    @Test
+    void segmentsLeftBehindBySnapshotAreDeleted() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        append(wal, "a");
+        long firstSegment = wal.roll();
+        wal.writeSnapshot(firstSegment, List.of(bytes("image")));
+        // As if the process died between writing the snapshot and deleting the old segment
+        Files.write(dir.resolve(String.format("wal-%016d.log", firstSegment - 1)), new byte[SEGMENT_BYTES]);
+
+        List<String> records = new ArrayList<>();
+        open(new ArrayList<>(), records);
+
+        assertTrue(records.isEmpty());
+        assertFalse(Files.exists(dir.resolve(String.format("wal-%016d.log", firstSegment - 1))));
+    }
+
+    @Test
+    void corruptSnapshotFailsRecovery() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+        wal.writeSnapshot(wal.roll(), List.of(bytes("image")));
+        Path snapshot = files("snapshot-").get(0);
+        byte[] content = Files.readAllBytes(snapshot);
+        content[content.length / 2] ^= 1;
+        Files.write(snapshot, content);
+
+        assertThrows(IllegalStateException.class, () -> open(new ArrayList<>(), new ArrayList<>()));
+    }
+
+    @Test
+    void oversizedRecordIsRejected() throws IOException {
+        WriteAheadLog wal = open(new ArrayList<>(), new ArrayList<>());
+
+        assertThrows(IllegalArgumentException.class, () -> append(wal, "x".repeat(SEGMENT_BYTES)));
+    }
+
+    private WriteAheadLog open(List<String> entries, List<String> records) throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(dir, SEGMENT_BYTES, false);
+        wal.recover(entry -> entries.add(string(entry)), record -> records.add(string(record)));
+        return wal;
+    }
+
+    private static void append(WriteAheadLog wal, String... records) throws IOException {
+        for (String record : records) {
+            wal.append(ByteBuffer.wrap(bytes(record)));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        return files("wal-");
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}